@@ -0,0 +1,46 @@
+/**
+ *   Copyright 2024 Nitro Agility S.r.l.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+  */
+
+package com.permguard.pep.benchmarks;
+
+import com.permguard.pep.model.request.AZRequest;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks building requests with the fluent builders.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BuilderBenchmark {
+
+    @Benchmark
+    public AZRequest buildAtomicRequest() {
+        return Fixtures.atomicRequest("bench");
+    }
+
+    @Benchmark
+    public AZRequest buildMultiEvaluationRequest() {
+        return Fixtures.multiEvaluationRequest("bench", 10);
+    }
+}
@@ -0,0 +1,93 @@
+/**
+ *   Copyright 2024 Nitro Agility S.r.l.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+  */
+
+package com.permguard.pep.benchmarks;
+
+import com.permguard.pep.client.AZClient;
+import com.permguard.pep.config.AZConfig;
+import com.permguard.pep.model.request.AZRequest;
+import com.permguard.pep.model.response.AZResponse;
+import com.permguard.pep.server.AZServer;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks complete authorization checks, mapping included, against the mock {@link AZServer} over an
+ * in-process transport, so that results measure the SDK rather than the network.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CheckBenchmark {
+
+    private AZServer server;
+    private AZClient client;
+    private AZRequest atomicRequest;
+    private AZRequest multiEvaluationRequest;
+    private AZRequest bulkRequest;
+
+    @Setup
+    public void setup() throws IOException {
+        String name = InProcessServerBuilder.generateName();
+        server = new AZServer();
+        server.start(InProcessServerBuilder.forName(name).directExecutor());
+        client = new AZClient(new AZConfig("localhost", 0, true), InProcessChannelBuilder.forName(name).build());
+        atomicRequest = Fixtures.atomicRequest("bench");
+        multiEvaluationRequest = Fixtures.multiEvaluationRequest("bench", 10);
+        bulkRequest = Fixtures.multiEvaluationRequest("bench", 10_000);
+    }
+
+    @TearDown
+    public void tearDown() {
+        client.shutdown();
+        server.stop();
+    }
+
+    @Benchmark
+    public AZResponse checkAtomic() {
+        return client.check(atomicRequest);
+    }
+
+    @Benchmark
+    public AZResponse checkMultiEvaluation() {
+        return client.check(multiEvaluationRequest);
+    }
+
+    @Benchmark
+    public AZResponse checkBulkSingleRequest() {
+        return client.check(bulkRequest);
+    }
+
+    @Benchmark
+    public AZResponse checkBulkChunked() {
+        return client.checkAll(bulkRequest.getAuthorizationModel(), bulkRequest.getEvaluations());
+    }
+
+    @Benchmark
+    @Threads(8)
+    public AZResponse checkAtomicConcurrent() {
+        return client.check(atomicRequest);
+    }
+}
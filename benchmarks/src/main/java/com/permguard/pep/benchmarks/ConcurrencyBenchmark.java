@@ -0,0 +1,112 @@
+/**
+ *   Copyright 2024 Nitro Agility S.r.l.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+  */
+
+package com.permguard.pep.benchmarks;
+
+import com.permguard.pep.client.AZClient;
+import com.permguard.pep.config.AZConfig;
+import com.permguard.pep.model.request.AZRequest;
+import com.permguard.pep.server.AZServer;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures the time to complete a burst of concurrent blocking checks against the mock {@link AZServer}, which
+ * answers after a simulated latency of 1 ms. The checks run either on a pool of platform threads or on one virtual
+ * thread each, with the client's virtual thread option enabled. The virtual variant requires Java 21.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConcurrencyBenchmark {
+
+    private static final int PLATFORM_THREADS = 200;
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    @Param({"100000"})
+    public int concurrency;
+
+    private AZServer server;
+    private AZClient client;
+    private ExecutorService callers;
+    private AZRequest request;
+
+    @Setup
+    public void setup() throws IOException {
+        boolean virtual = "virtual".equals(threads);
+        callers = virtual ? virtualThreadPerTaskExecutor() : Executors.newFixedThreadPool(PLATFORM_THREADS);
+        String name = InProcessServerBuilder.generateName();
+        server = new AZServer(Duration.ofMillis(1));
+        server.start(InProcessServerBuilder.forName(name).directExecutor());
+        AZConfig config = new AZConfig("localhost", 0, true);
+        config.setVirtualThreads(virtual);
+        client = new AZClient(config, InProcessChannelBuilder.forName(name).build());
+        request = Fixtures.atomicRequest("bench");
+    }
+
+    @TearDown
+    public void tearDown() {
+        callers.shutdownNow();
+        client.shutdown();
+        server.stop();
+    }
+
+    @Benchmark
+    public int checkConcurrently() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(concurrency);
+        AtomicInteger allowed = new AtomicInteger();
+        for (int i = 0; i < concurrency; i++) {
+            callers.execute(() -> {
+                try {
+                    if (client.check(request).isDecision()) {
+                        allowed.incrementAndGet();
+                    }
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        return allowed.get();
+    }
+
+    private static ExecutorService virtualThreadPerTaskExecutor() {
+        // Looked up at runtime, since the benchmarks are compiled for Java 17
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("Virtual threads require Java 21 or later", e);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to create the virtual thread executor", e);
+        }
+    }
+}
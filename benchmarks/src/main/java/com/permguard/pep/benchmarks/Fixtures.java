@@ -0,0 +1,152 @@
+/**
+ *   Copyright 2024 Nitro Agility S.r.l.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+  */
+
+package com.permguard.pep.benchmarks;
+
+import com.permguard.pep.builder.*;
+import com.permguard.pep.model.request.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Representative requests shared by the benchmarks, modelled on the SDK example.
+ */
+public final class Fixtures {
+
+    public static final long ZONE_ID = 646309364259L;
+    public static final String POLICY_STORE_ID = "917e468442634c5486319ca6f09475e8";
+    public static final String SUBJECT_ID = "platform-creator";
+    public static final String RESOURCE_TYPE = "MagicFarmacia::Platform::Subscription";
+    public static final String RESOURCE_ID = "e3a786fd07e24bfa95ba4341d3695ae8";
+    public static final String ACTION_NAME = "MagicFarmacia::Platform::Action::create";
+
+    private Fixtures() {
+    }
+
+    /**
+     * Builds the entities of the example request.
+     *
+     * @return The entities.
+     */
+    public static Entities entities() {
+        return new Entities("cedar", List.of(
+                Map.of(
+                        "uid", Map.of("type", "MagicFarmacia::Platform::BranchInfo", "id", "subscription"),
+                        "attrs", Map.of("active", true),
+                        "parents", List.of()
+                )
+        ));
+    }
+
+    /**
+     * Builds a large entity set.
+     *
+     * @param count The number of items.
+     * @return The entities.
+     */
+    public static Entities largeEntities(int count) {
+        List<Map<String, Object>> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(Map.of(
+                    "uid", Map.of("type", "MagicFarmacia::Platform::BranchInfo", "id", "branch-" + i),
+                    "attrs", Map.of("active", i % 2 == 0, "rank", i, "region", "eu-" + (i % 8)),
+                    "parents", List.of(Map.of("type", "MagicFarmacia::Platform::Subscription", "id", "subscription"))
+            ));
+        }
+        return new Entities("cedar", items);
+    }
+
+    /**
+     * Builds the example context, mixing strings, booleans, numbers and nested values.
+     *
+     * @return The context.
+     */
+    public static Map<String, Object> context() {
+        return Map.of(
+                "time", "2025-01-23T16:17:46+00:00",
+                "isSubscriptionActive", true,
+                "requestCount", 42,
+                "geo", Map.of("country", "IT", "lat", 45.4642, "lon", 9.19),
+                "tags", List.of("alpha", "beta", "gamma")
+        );
+    }
+
+    /**
+     * Builds an atomic request.
+     *
+     * @param requestId The request ID.
+     * @return The request.
+     */
+    public static AZRequest atomicRequest(String requestId) {
+        return new AZAtomicRequestBuilder(ZONE_ID, POLICY_STORE_ID, SUBJECT_ID, RESOURCE_TYPE, ACTION_NAME)
+                .withRequestId(requestId)
+                .withPrincipal(new PrincipalBuilder(SUBJECT_ID).withType("user").withSource("keycloak").build())
+                .withEntitiesItems("cedar", entities())
+                .withSubjectSource("keycloak")
+                .withSubjectProperty("isSuperUser", true)
+                .withResourceId(RESOURCE_ID)
+                .withResourceProperty("isEnabled", true)
+                .withActionProperty("isEnabled", true)
+                .withContextProperty("time", "2025-01-23T16:17:46+00:00")
+                .withContextProperty("isSubscriptionActive", true)
+                .build();
+    }
+
+    /**
+     * Builds a request with several evaluations sharing the same subject and resource.
+     *
+     * @param requestId   The request ID.
+     * @param evaluations The number of evaluations.
+     * @return The request.
+     */
+    public static AZRequest multiEvaluationRequest(String requestId, int evaluations) {
+        Subject subject = new SubjectBuilder(SUBJECT_ID)
+                .withType("role-actor")
+                .withSource("keycloak")
+                .withProperty("isSuperUser", true)
+                .build();
+        Resource resource = new ResourceBuilder(RESOURCE_TYPE)
+                .withId(RESOURCE_ID)
+                .withProperty("isEnabled", true)
+                .build();
+        AZRequestBuilder builder = new AZRequestBuilder(ZONE_ID, POLICY_STORE_ID)
+                .withRequestId(requestId)
+                .withPrincipal(new PrincipalBuilder(SUBJECT_ID).withType("role-actor").withSource("keycloak").build())
+                .withEntitiesItems("cedar", entities());
+        for (Evaluation evaluation : evaluations(subject, resource, evaluations)) {
+            builder.withEvaluation(evaluation);
+        }
+        return builder.build();
+    }
+
+    private static List<Evaluation> evaluations(Subject subject, Resource resource, int count) {
+        List<Evaluation> evaluations = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Action action = new ActionBuilder("MagicFarmacia::Platform::Action::action" + i)
+                    .withProperty("isEnabled", true)
+                    .build();
+            evaluations.add(new EvaluationBuilder(subject, resource, action)
+                    .withRequestId(Integer.toString(i))
+                    .withContext(context())
+                    .build());
+        }
+        return evaluations;
+    }
+}
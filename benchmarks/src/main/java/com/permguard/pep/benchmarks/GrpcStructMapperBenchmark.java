@@ -0,0 +1,81 @@
+/**
+ *   Copyright 2024 Nitro Agility S.r.l.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+  */
+
+package com.permguard.pep.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.Struct;
+import com.google.protobuf.util.JsonFormat;
+import com.permguard.pep.utils.GrpcStructMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the conversion between Java maps and protobuf {@link Struct}s,
+ * against the former JSON round trip through Jackson and {@link JsonFormat} as a baseline.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GrpcStructMapperBenchmark {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private Map<String, Object> map;
+    private Struct struct;
+
+    @Setup
+    public void setup() {
+        map = Fixtures.context();
+        struct = GrpcStructMapper.toGrpcStruct(map);
+    }
+
+    @Benchmark
+    public Struct toGrpcStruct() {
+        return GrpcStructMapper.toGrpcStruct(map);
+    }
+
+    @Benchmark
+    public Map<String, Object> fromGrpcStruct() {
+        return GrpcStructMapper.fromGrpcStruct(struct);
+    }
+
+    @Benchmark
+    public Struct toGrpcStructJsonBaseline() throws IOException {
+        Struct.Builder builder = Struct.newBuilder();
+        JsonFormat.parser().merge(objectMapper.writeValueAsString(map), builder);
+        return builder.build();
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> fromGrpcStructJsonBaseline() throws IOException {
+        try {
+            return objectMapper.readValue(JsonFormat.printer().print(struct), Map.class);
+        } catch (InvalidProtocolBufferException e) {
+            throw new IOException(e);
+        }
+    }
+}
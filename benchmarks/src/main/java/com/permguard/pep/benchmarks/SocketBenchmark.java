@@ -0,0 +1,94 @@
+/**
+ *   Copyright 2024 Nitro Agility S.r.l.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+  */
+
+package com.permguard.pep.benchmarks;
+
+import com.permguard.pep.client.AZClient;
+import com.permguard.pep.config.AZConfig;
+import com.permguard.pep.config.TransportConfig;
+import com.permguard.pep.config.TransportType;
+import com.permguard.pep.model.request.AZRequest;
+import com.permguard.pep.model.response.AZResponse;
+import com.permguard.pep.server.AZServer;
+import io.grpc.ServerBuilder;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the latency of atomic checks against the mock {@link AZServer} on the same host over TCP loopback and
+ * over a Unix domain socket, as with a sidecar PDP. Both use the epoll transport.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SocketBenchmark {
+
+    @Param({"tcp", "uds"})
+    public String socket;
+
+    private Path directory;
+    private AZServer server;
+    private AZClient client;
+    private AZRequest request;
+
+    @Setup
+    public void setup() throws IOException {
+        server = new AZServer();
+        AZConfig config;
+        if ("uds".equals(socket)) {
+            directory = Files.createTempDirectory("permguard-bench");
+            Path path = directory.resolve("pdp.sock");
+            server.start(path);
+            config = new AZConfig();
+            config.setTarget("unix://" + path);
+        } else {
+            int port;
+            try (ServerSocket serverSocket = new ServerSocket(0)) {
+                port = serverSocket.getLocalPort();
+            }
+            server.start(ServerBuilder.forPort(port));
+            config = new AZConfig("localhost", port, true);
+        }
+        config.setTransport(new TransportConfig(TransportType.EPOLL, 1, true, true));
+        client = new AZClient(config);
+        request = Fixtures.atomicRequest("bench");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        client.shutdown();
+        server.stop();
+        if (directory != null) {
+            Files.deleteIfExists(directory.resolve("pdp.sock"));
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    @Benchmark
+    public AZResponse checkAtomic() {
+        return client.check(request);
+    }
+}
@@ -0,0 +1,85 @@
+/**
+ *   Copyright 2024 Nitro Agility S.r.l.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+  */
+
+package com.permguard.pep.benchmarks;
+
+import com.permguard.pep.client.AZClient;
+import com.permguard.pep.config.AZConfig;
+import com.permguard.pep.config.TransportConfig;
+import com.permguard.pep.config.TransportType;
+import com.permguard.pep.model.request.AZRequest;
+import com.permguard.pep.model.response.AZResponse;
+import com.permguard.pep.server.AZServer;
+import io.grpc.ServerBuilder;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks atomic checks against the mock {@link AZServer} over TCP loopback with each Netty transport and
+ * buffer allocation, to compare the system call and allocation costs of the client's transport settings.
+ * Run it with {@code -prof gc} to see the allocation rates.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TransportBenchmark {
+
+    @Param({"NIO", "EPOLL"})
+    public TransportType transport;
+
+    @Param({"true", "false"})
+    public boolean directBuffers;
+
+    private AZServer server;
+    private AZClient client;
+    private AZRequest request;
+
+    @Setup
+    public void setup() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        server = new AZServer();
+        server.start(ServerBuilder.forPort(port));
+        AZConfig config = new AZConfig("localhost", port, true);
+        config.setTransport(new TransportConfig(transport, 1, directBuffers, true));
+        client = new AZClient(config);
+        if (client.getTransportType() != transport) {
+            throw new IllegalStateException(transport + " is not available, the client uses " + client.getTransportType());
+        }
+        request = Fixtures.atomicRequest("bench");
+    }
+
+    @TearDown
+    public void tearDown() {
+        client.shutdown();
+        server.stop();
+    }
+
+    @Benchmark
+    public AZResponse checkAtomic() {
+        return client.check(request);
+    }
+}
@@ -0,0 +1,219 @@
+/**
+ *   Copyright 2024 Nitro Agility S.r.l.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+  */
+
+package com.permguard.pep.client;
+
+import com.google.protobuf.CodedInputStream;
+import com.permguard.pep.benchmarks.Fixtures;
+import com.permguard.pep.internal.proto.AuthorizationCheck;
+import com.permguard.pep.model.request.AZRequest;
+import com.permguard.pep.model.response.AZResponse;
+import com.permguard.pep.model.response.EvaluationResponse;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the conversion between the SDK model and the gRPC messages.
+ * Lives in the client package to reach the package-private {@link Mapper}.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MapperBenchmark {
+
+    private Mapper mapper;
+    private DirectCodec codec;
+    private Mapper internedMapper;
+    private DirectCodec internedCodec;
+    private AZRequest atomicRequest;
+    private AZRequest multiEvaluationRequest;
+    private CheckTemplate template;
+    private Mapper cachingMapper;
+    private AZRequest largeEntitiesRequest;
+    private AZRequest registeredEntitiesRequest;
+    private AuthorizationCheck.AuthorizationCheckResponse response;
+    private AuthorizationCheck.AuthorizationCheckResponse largeResponse;
+    private byte[] responseBytes;
+
+    @Setup
+    public void setup() {
+        mapper = new Mapper();
+        codec = new DirectCodec(mapper);
+        internedMapper = new Mapper(false, 1024);
+        internedCodec = new DirectCodec(internedMapper);
+        atomicRequest = Fixtures.atomicRequest("bench");
+        multiEvaluationRequest = Fixtures.multiEvaluationRequest("bench", 10);
+        template = new CheckTemplate(null, mapper, atomicRequest);
+        cachingMapper = new Mapper(true);
+        largeEntitiesRequest = Fixtures.atomicRequest("bench");
+        largeEntitiesRequest.getAuthorizationModel().setEntities(Fixtures.largeEntities(10_000));
+        registeredEntitiesRequest = Fixtures.atomicRequest("bench");
+        registeredEntitiesRequest.getAuthorizationModel().setEntities(new RegisteredEntities("bench", "1",
+                largeEntitiesRequest.getAuthorizationModel().getEntities(),
+                mapper.serializeEntities(largeEntitiesRequest.getAuthorizationModel().getEntities())));
+        AuthorizationCheck.AuthorizationCheckResponse.Builder builder = AuthorizationCheck.AuthorizationCheckResponse.newBuilder()
+                .setDecision(false)
+                .setRequestID("bench")
+                .setContext(context("root"));
+        for (int i = 0; i < 10; i++) {
+            builder.addEvaluations(AuthorizationCheck.EvaluationResponse.newBuilder()
+                    .setDecision(i % 2 == 0)
+                    .setRequestID(Integer.toString(i))
+                    .setContext(context(Integer.toString(i))));
+        }
+        response = builder.build();
+        responseBytes = response.toByteArray();
+        AuthorizationCheck.AuthorizationCheckResponse.Builder largeBuilder = AuthorizationCheck.AuthorizationCheckResponse.newBuilder()
+                .setDecision(false);
+        for (int i = 0; i < 500; i++) {
+            largeBuilder.addEvaluations(AuthorizationCheck.EvaluationResponse.newBuilder()
+                    .setDecision(i % 3 != 0)
+                    .setRequestID(Integer.toString(i))
+                    .setContext(context(Integer.toString(i))));
+        }
+        largeResponse = largeBuilder.build();
+    }
+
+    private static AuthorizationCheck.ContextResponse context(String id) {
+        return AuthorizationCheck.ContextResponse.newBuilder()
+                .setID(id)
+                .setReasonAdmin(AuthorizationCheck.ReasonResponse.newBuilder().setCode("403").setMessage("denied by policy"))
+                .setReasonUser(AuthorizationCheck.ReasonResponse.newBuilder().setCode("403").setMessage("access denied"))
+                .build();
+    }
+
+    @Benchmark
+    public AuthorizationCheck.AuthorizationCheckRequest mapAtomicRequest() {
+        return mapper.mapAuthorizationCheckRequest(atomicRequest);
+    }
+
+    @Benchmark
+    public AuthorizationCheck.AuthorizationCheckRequest fillTemplate() {
+        return template.request(Fixtures.SUBJECT_ID, Fixtures.RESOURCE_ID, Fixtures.ACTION_NAME, "bench");
+    }
+
+    @Benchmark
+    public AuthorizationCheck.AuthorizationCheckRequest mapMultiEvaluationRequest() {
+        return mapper.mapAuthorizationCheckRequest(multiEvaluationRequest);
+    }
+
+    @Benchmark
+    public byte[] serializeAtomicRequest() {
+        return mapper.mapAuthorizationCheckRequest(atomicRequest).toByteArray();
+    }
+
+    @Benchmark
+    public byte[] encodeAtomicRequestDirect() {
+        return codec.encode(atomicRequest).toByteArray();
+    }
+
+    @Benchmark
+    public byte[] serializeAtomicRequestInterned() {
+        return internedMapper.mapAuthorizationCheckRequest(atomicRequest).toByteArray();
+    }
+
+    @Benchmark
+    public byte[] serializeMultiEvaluationRequest() {
+        return mapper.mapAuthorizationCheckRequest(multiEvaluationRequest).toByteArray();
+    }
+
+    @Benchmark
+    public byte[] encodeMultiEvaluationRequestDirect() {
+        return codec.encode(multiEvaluationRequest).toByteArray();
+    }
+
+    @Benchmark
+    public byte[] serializeMultiEvaluationRequestInterned() {
+        return internedMapper.mapAuthorizationCheckRequest(multiEvaluationRequest).toByteArray();
+    }
+
+    @Benchmark
+    public byte[] encodeMultiEvaluationRequestDirectInterned() {
+        return internedCodec.encode(multiEvaluationRequest).toByteArray();
+    }
+
+    @Benchmark
+    public AuthorizationCheck.AuthorizationCheckRequest mapLargeEntities() {
+        return mapper.mapAuthorizationCheckRequest(largeEntitiesRequest);
+    }
+
+    @Benchmark
+    public AuthorizationCheck.AuthorizationCheckRequest mapLargeEntitiesCached() {
+        return cachingMapper.mapAuthorizationCheckRequest(largeEntitiesRequest);
+    }
+
+    @Benchmark
+    public byte[] serializeLargeEntitiesCached() {
+        return cachingMapper.mapAuthorizationCheckRequest(largeEntitiesRequest).toByteArray();
+    }
+
+    @Benchmark
+    public byte[] serializeLargeEntitiesRegistered() {
+        return mapper.mapAuthorizationCheckRequest(registeredEntitiesRequest).toByteArray();
+    }
+
+    @Benchmark
+    public boolean mapResponseDecision() {
+        return mapper.mapAuthResponsePayload(response).isDecision();
+    }
+
+    @Benchmark
+    public BitSet decisionsFromEvaluations() {
+        List<EvaluationResponse> evaluations = mapper.mapAuthResponsePayload(largeResponse).getEvaluations();
+        BitSet decisions = new BitSet(evaluations.size());
+        for (int i = 0; i < evaluations.size(); i++) {
+            decisions.set(i, evaluations.get(i).isDecision());
+        }
+        return decisions;
+    }
+
+    @Benchmark
+    public BitSet decisions() {
+        return mapper.mapAuthResponsePayload(largeResponse).decisions();
+    }
+
+    @Benchmark
+    public AZResponse parseResponseFully() throws IOException {
+        AZResponse mapped = mapper.mapAuthResponsePayload(AuthorizationCheck.AuthorizationCheckResponse.parseFrom(responseBytes));
+        mapped.getRequestId();
+        mapped.getContext();
+        mapped.getEvaluations();
+        return mapped;
+    }
+
+    @Benchmark
+    public AZResponse parseResponseDirect() throws IOException {
+        return DirectCodec.parseResponse(CodedInputStream.newInstance(responseBytes));
+    }
+
+    @Benchmark
+    public AZResponse mapResponseFully() {
+        AZResponse mapped = mapper.mapAuthResponsePayload(response);
+        mapped.getRequestId();
+        mapped.getContext();
+        mapped.getEvaluations();
+        return mapped;
+    }
+}
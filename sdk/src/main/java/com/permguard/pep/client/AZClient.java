@@ -19,72 +19,856 @@
 package com.permguard.pep.client;
 
 import com.permguard.pep.config.AZConfig;
+import com.permguard.pep.config.BulkCheckConfig;
+import com.permguard.pep.config.TransportType;
 import com.permguard.pep.exception.AuthorizationException;
+import com.permguard.pep.exception.AuthorizationTimeoutException;
 import com.permguard.pep.internal.proto.AuthorizationCheck;
 import com.permguard.pep.internal.proto.V1PDPServiceGrpc;
+import com.permguard.pep.metrics.AZMetrics;
+import com.permguard.pep.metrics.CheckPhase;
+import com.permguard.pep.tracing.AZTracing;
+import com.permguard.pep.tracing.TraceSpan;
 import com.permguard.pep.model.request.*;
 import com.permguard.pep.model.response.AZResponse;
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientInterceptors;
+import io.grpc.Context;
+import io.grpc.Deadline;
 import io.grpc.ManagedChannel;
-import io.grpc.ManagedChannelBuilder;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
 import io.grpc.StatusRuntimeException;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientCalls;
+import io.grpc.stub.ClientResponseObserver;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * Client for interacting with the Policy Decision Point (PDP) authorization service.
  */
 public class AZClient {
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 5;
+
     private final AZConfig config;
-    private final ManagedChannel channel;
+    private final ChannelPool channels;
+    private final Channel channel;
     private final V1PDPServiceGrpc.V1PDPServiceBlockingStub blockingStub;
+    private final Executor executor;
+    private final ExecutorService virtualThreads;
     private final Mapper mapper;
+    private final DirectCodec codec;
+    private final DecisionCache decisionCache;
+    private final RequestCoalescer coalescer;
+    private final BatchDispatcher batcher;
+    private final Hedger hedger;
+    private final AZMetrics metrics;
+    private final AZTracing tracing;
+    private final CallTracker callTracker;
+    private final Map<String, RegisteredEntities> registeredEntities = new ConcurrentHashMap<>();
 
     /**
      * Constructs a new client with the given configuration.
-     * Initializes the channel and stub.
+     * Initializes the channels and stubs.
      *
      * @param config the configuration for the client
      */
     public AZClient(AZConfig config) {
+        this(config, executor -> ChannelFactory.createPool(config, executor));
+    }
+
+    /**
+     * Constructs a new client over an existing channel, e.g. an in-process channel in tests and benchmarks.
+     * The connection settings of the configuration (host, port, endpoints, channels) are ignored,
+     * and the channel is shut down with the client.
+     *
+     * @param config  the configuration for the client
+     * @param channel the channel to the PDP
+     */
+    public AZClient(AZConfig config, ManagedChannel channel) {
+        this(config, executor -> new ChannelPool(List.of(channel), null));
+    }
+
+    private AZClient(AZConfig config, Function<Executor, ChannelPool> channelFactory) {
         this.config = config;
-        ManagedChannelBuilder<?> builder = ManagedChannelBuilder
-                .forAddress(config.getHost(), config.getPort());
-        if (config.isUsePlaintext()) {
-            builder.usePlaintext();
+        // Without virtual thread support (before Java 21), the client keeps the default executors
+        this.virtualThreads = config.isVirtualThreads() ? VirtualThreads.newExecutor() : null;
+        this.channels = channelFactory.apply(virtualThreads);
+        this.mapper = new Mapper(config.isCacheEntities(), config.getStringCacheSize());
+        this.metrics = config.getMetrics() != null ? config.getMetrics() : AZMetrics.NOOP;
+        this.tracing = config.getTracing() != null ? config.getTracing() : AZTracing.NOOP;
+        this.callTracker = new CallTracker(metrics);
+        Channel channel = ClientInterceptors.intercept(channels, callTracker);
+        if (tracing.interceptor() != null) {
+            channel = ClientInterceptors.intercept(channel, tracing.interceptor());
         }
-        this.mapper = new Mapper();
-        this.channel = builder.build();
+        this.channel = channel;
         this.blockingStub = V1PDPServiceGrpc.newBlockingStub(channel);
+        this.executor = config.getExecutor() != null ? config.getExecutor()
+                : virtualThreads != null ? virtualThreads : ForkJoinPool.commonPool();
+        this.decisionCache = config.getDecisionCache() != null ? new DecisionCache(config.getDecisionCache()) : null;
+        this.coalescer = config.isCoalesceRequests() ? new RequestCoalescer(metrics) : null;
+        this.hedger = config.getHedging() != null ? new Hedger(config.getHedging(), metrics) : null;
+        this.batcher = config.getBatching() != null
+                ? new BatchDispatcher(config.getBatching(), (grpcRequest, deadline) -> rpcAsync(grpcRequest, deadline, null)) : null;
+        // The decision cache, coalescing and batching work on protobuf messages
+        this.codec = config.isDirectMarshalling() && decisionCache == null && coalescer == null && batcher == null
+                ? new DirectCodec(mapper) : null;
     }
 
     /**
-     * Closes the channel when it is no longer needed.
+     * Closes the channels when they are no longer needed.
+     * With virtual threads or a Netty transport, it waits up to five seconds for the calls in flight,
+     * whose callbacks and I/O run on those threads, before stopping them.
      */
     public void shutdown() {
-        if (channel != null && !channel.isShutdown()) {
-            channel.shutdown();
+        if (batcher != null) {
+            batcher.shutdown();
+        }
+        if (hedger != null) {
+            hedger.shutdown();
+        }
+        channels.shutdown();
+        if (virtualThreads != null || channels.transport() != null) {
+            channels.awaitTermination(Duration.ofSeconds(SHUTDOWN_TIMEOUT_SECONDS));
+            channels.shutdownTransport();
+            if (virtualThreads != null) {
+                virtualThreads.shutdown();
+            }
         }
     }
 
     /**
-     * Performs an authorization check against the PDP.
+     * Performs an authorization check against the PDP, within the default deadline of {@link AZConfig#getDeadline()}.
      *
      * @param requestPayload The request payload containing the authorization check details.
      * @return The response from the PDP.
      */
     public AZResponse check(AZRequest requestPayload) {
-        try {
+        return check(requestPayload, config.getDeadline());
+    }
+
+    /**
+     * Performs an authorization check against the PDP within the given timeout.
+     * A shorter deadline inherited from the current gRPC context takes precedence.
+     *
+     * @param requestPayload The request payload containing the authorization check details.
+     * @param timeout        The maximum duration of the check, or null for no deadline.
+     * @return The response from the PDP.
+     * @throws AuthorizationTimeoutException If the check does not complete in time.
+     */
+    public AZResponse check(AZRequest requestPayload, Duration timeout) {
+        if (codec != null) {
+            return checkDirect(requestPayload, timeout);
+        }
+        return check(requestPayload, () -> mapper.mapAuthorizationCheckRequest(requestPayload), timeout);
+    }
+
+    /**
+     * Performs an authorization check whose gRPC request is produced by the given mapping.
+     *
+     * @param requestPayload The request payload, used for tracing.
+     * @param mapping        Produces the gRPC request.
+     * @param timeout        The maximum duration of the check, or null for no deadline.
+     * @return The response from the PDP.
+     */
+    AZResponse check(AZRequest requestPayload, Supplier<AuthorizationCheck.AuthorizationCheckRequest> mapping, Duration timeout) {
+        long start = System.nanoTime();
+        metrics.checkStarted();
+        TraceSpan span = tracing.startCheck(requestPayload);
+        try (TraceSpan.Scope ignored = span.makeCurrent()) {
+            Deadline deadline = deadlineFor(timeout);
             // Convert to gRPC format
-            AuthorizationCheck.AuthorizationCheckRequest grpcRequest = mapper.mapAuthorizationCheckRequest(requestPayload);
-            AuthorizationCheck.AuthorizationCheckResponse grpcResponse = blockingStub.authorizationCheck(grpcRequest);
+            AuthorizationCheck.AuthorizationCheckRequest grpcRequest = map(mapping, span);
+            long mapped = System.nanoTime();
+            AuthorizationCheck.AuthorizationCheckResponse grpcResponse = authorizationCheck(grpcRequest, deadline);
 
             // Convert gRPC response back to AZResponse
-            return mapper.mapAuthResponsePayload(grpcResponse);
+            return succeeded(unmap(grpcResponse, mapped, span), start, span);
 
-        } catch (StatusRuntimeException e) {
-            throw new AuthorizationException("Authorization check failed due to gRPC error.", e);
         } catch (Exception e) {
-            throw new AuthorizationException("An unexpected error occurred.", e);
+            throw failed(e, start, span);
         }
     }
 
-}
+    /**
+     * Performs an authorization check against the PDP without blocking the calling thread,
+     * within the default deadline of {@link AZConfig#getDeadline()}.
+     * Request and response mapping run on the executor configured in {@link AZConfig#getExecutor()}.
+     * Cancelling the returned future cancels the underlying RPC.
+     *
+     * @param requestPayload The request payload containing the authorization check details.
+     * @return A future completed with the response from the PDP, or exceptionally with an {@link AuthorizationException}.
+     */
+    public CompletableFuture<AZResponse> checkAsync(AZRequest requestPayload) {
+        return checkAsync(requestPayload, config.getDeadline());
+    }
+
+    /**
+     * Performs an authorization check against the PDP without blocking the calling thread, within the given timeout.
+     * A shorter deadline inherited from the calling thread's gRPC context takes precedence.
+     *
+     * @param requestPayload The request payload containing the authorization check details.
+     * @param timeout        The maximum duration of the check, or null for no deadline.
+     * @return A future completed with the response from the PDP, or exceptionally with an {@link AuthorizationException}
+     * ({@link AuthorizationTimeoutException} if the check does not complete in time).
+     */
+    public CompletableFuture<AZResponse> checkAsync(AZRequest requestPayload, Duration timeout) {
+        if (codec != null) {
+            return checkDirectAsync(requestPayload, timeout);
+        }
+        return checkAsync(requestPayload, () -> mapper.mapAuthorizationCheckRequest(requestPayload), timeout);
+    }
+
+    /**
+     * Performs an authorization check whose gRPC request is produced by the given mapping, without blocking the calling thread.
+     *
+     * @param requestPayload The request payload, used for tracing.
+     * @param mapping        Produces the gRPC request, on the client's executor.
+     * @param timeout        The maximum duration of the check, or null for no deadline.
+     * @return A future completed with the response from the PDP, or exceptionally with an {@link AuthorizationException}.
+     */
+    CompletableFuture<AZResponse> checkAsync(AZRequest requestPayload, Supplier<AuthorizationCheck.AuthorizationCheckRequest> mapping,
+                                             Duration timeout) {
+        CompletableFuture<AZResponse> result = new CompletableFuture<>();
+        long start = System.nanoTime();
+        metrics.checkStarted();
+        TraceSpan span = tracing.startCheck(requestPayload);
+        try {
+            Deadline deadline = deadlineFor(timeout);
+            executor.execute(() -> {
+                try (TraceSpan.Scope ignored = span.makeCurrent()) {
+                    AuthorizationCheck.AuthorizationCheckRequest grpcRequest = map(mapping, span);
+                    long mapped = System.nanoTime();
+                    authorizationCheckAsync(grpcRequest, deadline, result)
+                            .thenApply(grpcResponse -> unmap(grpcResponse, mapped, span))
+                            .whenComplete((response, error) -> {
+                                if (error != null) {
+                                    result.completeExceptionally(failed(error, start, span));
+                                } else {
+                                    result.complete(succeeded(response, start, span));
+                                }
+                            });
+                } catch (Exception e) {
+                    result.completeExceptionally(failed(e, start, span));
+                }
+            });
+        } catch (Exception e) {
+            result.completeExceptionally(failed(e, start, span));
+        }
+        return result;
+    }
+
+    /**
+     * Performs an authorization check with direct marshalling: the request is encoded from the payload and the response
+     * parsed into an AZResponse by the marshallers of {@link DirectCodec}, so the RPC phase includes the parsing.
+     *
+     * @param requestPayload The request payload.
+     * @param timeout        The maximum duration of the check, or null for no deadline.
+     * @return The response from the PDP.
+     */
+    private AZResponse checkDirect(AZRequest requestPayload, Duration timeout) {
+        long start = System.nanoTime();
+        metrics.checkStarted();
+        TraceSpan span = tracing.startCheck(requestPayload);
+        try (TraceSpan.Scope ignored = span.makeCurrent()) {
+            Deadline deadline = deadlineFor(timeout);
+            DirectCodec.EncodedRequest encoded = map(() -> codec.encode(requestPayload), span);
+            long mapped = System.nanoTime();
+            AZResponse response = hedger != null
+                    ? join(hedger.invoke(attempt -> invokeAsync(DirectCodec.AUTHORIZATION_CHECK, encoded, deadline, attempt), null))
+                    : ClientCalls.blockingUnaryCall(channel, DirectCodec.AUTHORIZATION_CHECK,
+                    deadline != null ? CallOptions.DEFAULT.withDeadline(deadline) : CallOptions.DEFAULT, encoded);
+            metrics.recordLatency(CheckPhase.RPC, System.nanoTime() - mapped);
+            return succeeded(response, start, span);
+        } catch (Exception e) {
+            throw failed(e, start, span);
+        }
+    }
+
+    /**
+     * Performs an authorization check with direct marshalling without blocking the calling thread.
+     *
+     * @param requestPayload The request payload.
+     * @param timeout        The maximum duration of the check, or null for no deadline.
+     * @return A future completed with the response from the PDP, or exceptionally with an {@link AuthorizationException}.
+     */
+    private CompletableFuture<AZResponse> checkDirectAsync(AZRequest requestPayload, Duration timeout) {
+        CompletableFuture<AZResponse> result = new CompletableFuture<>();
+        long start = System.nanoTime();
+        metrics.checkStarted();
+        TraceSpan span = tracing.startCheck(requestPayload);
+        try {
+            Deadline deadline = deadlineFor(timeout);
+            executor.execute(() -> {
+                try (TraceSpan.Scope ignored = span.makeCurrent()) {
+                    DirectCodec.EncodedRequest encoded = map(() -> codec.encode(requestPayload), span);
+                    long mapped = System.nanoTime();
+                    (hedger != null
+                            ? hedger.invoke(attempt -> invokeAsync(DirectCodec.AUTHORIZATION_CHECK, encoded, deadline, attempt), result)
+                            : invokeAsync(DirectCodec.AUTHORIZATION_CHECK, encoded, deadline, result))
+                            .whenComplete((response, error) -> {
+                                if (error != null) {
+                                    result.completeExceptionally(failed(error, start, span));
+                                } else {
+                                    metrics.recordLatency(CheckPhase.RPC, System.nanoTime() - mapped);
+                                    result.complete(succeeded(response, start, span));
+                                }
+                            });
+                } catch (Exception e) {
+                    result.completeExceptionally(failed(e, start, span));
+                }
+            });
+        } catch (Exception e) {
+            result.completeExceptionally(failed(e, start, span));
+        }
+        return result;
+    }
+
+    /**
+     * Checks a large list of evaluations against one authorization model, for instance to filter resources by permission.
+     * The evaluations are split into chunks of {@link BulkCheckConfig#getChunkSize()} sent as separate checks, with at most
+     * {@link BulkCheckConfig#getMaxConcurrentChunks()} in flight, each within the default deadline.
+     *
+     * @param model       The authorization model.
+     * @param evaluations The evaluations.
+     * @return The merged response, with the evaluation results in the order of the evaluations.
+     * @throws AuthorizationException If a chunk fails.
+     */
+    public AZResponse checkAll(AZModel model, List<Evaluation> evaluations) {
+        return join(checkAllAsync(model, evaluations, null));
+    }
+
+    /**
+     * Checks a large list of evaluations against one authorization model without blocking the calling thread.
+     * See {@link #checkAll(AZModel, List)}.
+     *
+     * @param model       The authorization model.
+     * @param evaluations The evaluations.
+     * @return A future completed with the merged response, or exceptionally with the {@link AuthorizationException} of the
+     * first failed chunk. Cancelling it cancels the chunks in flight.
+     */
+    public CompletableFuture<AZResponse> checkAllAsync(AZModel model, List<Evaluation> evaluations) {
+        return checkAllAsync(model, evaluations, null);
+    }
+
+    /**
+     * Checks a large list of evaluations against one authorization model without blocking the calling thread,
+     * reporting each chunk as soon as it completes. Chunks may complete out of order.
+     * See {@link #checkAll(AZModel, List)}.
+     *
+     * @param model       The authorization model.
+     * @param evaluations The evaluations.
+     * @param onChunk     Receives the index of a chunk's first evaluation and the chunk response, or null.
+     * @return A future completed with the merged response, or exceptionally with the {@link AuthorizationException} of the
+     * first failed chunk. Cancelling it cancels the chunks in flight.
+     */
+    public CompletableFuture<AZResponse> checkAllAsync(AZModel model, List<Evaluation> evaluations,
+                                                       BiConsumer<Integer, AZResponse> onChunk) {
+        BulkCheckConfig bulk = config.getBulkCheck() != null ? config.getBulkCheck() : new BulkCheckConfig();
+        return new BulkCheck(model, evaluations, bulk.getChunkSize(), this::checkAsync, onChunk)
+                .start(bulk.getMaxConcurrentChunks());
+    }
+
+    /**
+     * Creates a template for checks that differ only in subject ID, resource ID and action name.
+     * The prototype is converted to protobuf once; see {@link CheckTemplate}.
+     *
+     * @param prototype An atomic request providing everything but the varying fields.
+     * @return The check template.
+     * @throws IllegalArgumentException If the prototype is not an atomic request with a subject, a resource and an action.
+     */
+    public CheckTemplate template(AZRequest prototype) {
+        return new CheckTemplate(this, mapper, prototype);
+    }
+
+    /**
+     * Registers an entity set under a name, serializing it to protobuf once.
+     * Authorization models referring to the returned instance send the serialized entities without converting
+     * the items again. Registering the same name with the same version returns the registered instance unchanged;
+     * with another version, the instance is updated in place and the following checks send the new entities.
+     *
+     * @param name     The registration name.
+     * @param entities The entities to register.
+     * @param version  The version token of the entities, e.g. a revision number or a content hash.
+     * @return The registered entities, to be set on the authorization models.
+     * @throws IllegalArgumentException If the name, the entities or the version is null.
+     */
+    public RegisteredEntities registerEntities(String name, Entities entities, String version) {
+        if (name == null || entities == null || version == null) {
+            throw new IllegalArgumentException("Registering entities requires a name, the entities and a version.");
+        }
+        return registeredEntities.compute(name, (key, current) -> {
+            if (current == null) {
+                return new RegisteredEntities(key, version, entities, mapper.serializeEntities(entities));
+            }
+            if (!current.getVersion().equals(version)) {
+                current.update(version, entities, mapper.serializeEntities(entities));
+            }
+            return current;
+        });
+    }
+
+    /**
+     * Gets the entities registered under a name.
+     *
+     * @param name The registration name.
+     * @return The registered entities, or null if none are registered under that name.
+     */
+    public RegisteredEntities getRegisteredEntities(String name) {
+        return registeredEntities.get(name);
+    }
+
+    /**
+     * Removes the registration of an entity set. Models still referring to it keep sending its last version.
+     *
+     * @param name The registration name.
+     */
+    public void unregisterEntities(String name) {
+        registeredEntities.remove(name);
+    }
+
+    /**
+     * Gets the default deadline of a check.
+     *
+     * @return The default timeout, or null for no deadline.
+     */
+    Duration defaultTimeout() {
+        return config.getDeadline();
+    }
+
+    /**
+     * Gets the statistics of the decision cache.
+     *
+     * @return The cache statistics, or null if the decision cache is disabled.
+     */
+    public DecisionCacheStats getDecisionCacheStats() {
+        return decisionCache != null ? decisionCache.stats() : null;
+    }
+
+    /**
+     * Gets the Netty transport carrying the calls, which is NIO when epoll was requested but is not available.
+     *
+     * @return The transport type, or null if the client uses the gRPC default or a channel it was given.
+     */
+    public TransportType getTransportType() {
+        return channels.transport() != null ? channels.transport().type() : null;
+    }
+
+    /**
+     * Gets the statistics of the cache of encoded identifier strings.
+     *
+     * @return The cache statistics, or null if the string cache is disabled.
+     */
+    public StringCacheStats getStringCacheStats() {
+        return mapper.strings() != null ? mapper.strings().stats() : null;
+    }
+
+    /**
+     * Gets the statistics of hedged requests.
+     *
+     * @return The hedging statistics, or null if hedging is disabled.
+     */
+    public HedgingStats getHedgingStats() {
+        return hedger != null ? hedger.stats() : null;
+    }
+
+    /**
+     * Gets the statistics of the attempts sent to the PDP, including the retries of the retry policy.
+     *
+     * @return The retry statistics.
+     */
+    public RetryStats getRetryStats() {
+        return callTracker.stats();
+    }
 
+    /**
+     * Discards every cached decision, e.g. after a policy change.
+     */
+    public void invalidateDecisionCache() {
+        if (decisionCache != null) {
+            decisionCache.clear();
+        }
+    }
+
+    /**
+     * Produces the request of a check, recording the latency and span of the mapping phase.
+     *
+     * @param mapping Produces the request.
+     * @param span    The span of the check.
+     * @param <T>     The type of the request.
+     * @return The request.
+     */
+    private <T> T map(Supplier<T> mapping, TraceSpan span) {
+        long start = System.nanoTime();
+        TraceSpan mapSpan = tracing.startPhase(span, "permguard.map.request");
+        try {
+            return mapping.get();
+        } finally {
+            mapSpan.end();
+            metrics.recordLatency(CheckPhase.MAP, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Converts a gRPC response into an AZResponse, recording the latency of the RPC and unmapping phases
+     * and the span of the unmapping phase.
+     *
+     * @param grpcResponse The gRPC response.
+     * @param mapped       The time the request was mapped, in {@link System#nanoTime()} units.
+     * @param span         The span of the check.
+     * @return The AZResponse.
+     */
+    private AZResponse unmap(AuthorizationCheck.AuthorizationCheckResponse grpcResponse, long mapped, TraceSpan span) {
+        long received = System.nanoTime();
+        metrics.recordLatency(CheckPhase.RPC, received - mapped);
+        TraceSpan unmapSpan = tracing.startPhase(span, "permguard.map.response");
+        try {
+            return mapper.mapAuthResponsePayload(grpcResponse);
+        } finally {
+            unmapSpan.end();
+            metrics.recordLatency(CheckPhase.UNMAP, System.nanoTime() - received);
+        }
+    }
+
+    /**
+     * Records the outcome of a successful check.
+     *
+     * @param response The response.
+     * @param start    The time the check started, in {@link System#nanoTime()} units.
+     * @param span     The span of the check.
+     * @return The same response.
+     */
+    private AZResponse succeeded(AZResponse response, long start, TraceSpan span) {
+        metrics.recordLatency(CheckPhase.TOTAL, System.nanoTime() - start);
+        metrics.recordDecision(response.isDecision());
+        metrics.checkFinished();
+        span.setDecision(response.isDecision());
+        span.end();
+        return response;
+    }
+
+    /**
+     * Records the outcome of a failed check.
+     *
+     * @param error The failure.
+     * @param start The time the check started, in {@link System#nanoTime()} units.
+     * @param span  The span of the check.
+     * @return The matching authorization exception.
+     */
+    private AuthorizationException failed(Throwable error, long start, TraceSpan span) {
+        AuthorizationException exception = toAuthorizationException(error);
+        metrics.recordLatency(CheckPhase.TOTAL, System.nanoTime() - start);
+        metrics.recordError(statusOf(exception));
+        metrics.checkFinished();
+        span.recordError(exception);
+        span.end();
+        return exception;
+    }
+
+    /**
+     * Looks a request up in the decision cache, if enabled.
+     *
+     * @param key The cache key.
+     * @return The cached response, or null.
+     */
+    private AuthorizationCheck.AuthorizationCheckResponse lookup(AuthorizationCheck.AuthorizationCheckRequest key) {
+        if (decisionCache == null) {
+            return null;
+        }
+        AuthorizationCheck.AuthorizationCheckResponse cached = decisionCache.get(key);
+        metrics.recordCacheLookup(cached != null);
+        return cached;
+    }
+
+    /**
+     * Obtains the decision for a mapped request, from the decision cache or an identical in-flight call when possible.
+     *
+     * @param grpcRequest The mapped request.
+     * @param deadline    The deadline of the check, or null.
+     * @return The gRPC response.
+     */
+    private AuthorizationCheck.AuthorizationCheckResponse authorizationCheck(AuthorizationCheck.AuthorizationCheckRequest grpcRequest,
+                                                                             Deadline deadline) {
+        if (decisionCache == null && coalescer == null) {
+            return call(grpcRequest, deadline);
+        }
+        AuthorizationCheck.AuthorizationCheckRequest key = DecisionCache.keyOf(grpcRequest);
+        AuthorizationCheck.AuthorizationCheckResponse cached = lookup(key);
+        if (cached != null) {
+            return withRequestId(cached, grpcRequest);
+        }
+        if (coalescer == null) {
+            return cache(key, call(grpcRequest, deadline));
+        }
+        return withRequestId(coalescer.execute(key, deadline, () -> sharedCall(key, grpcRequest)), grpcRequest);
+    }
+
+    /**
+     * Obtains the decision for a mapped request asynchronously, from the decision cache or an identical in-flight call when possible.
+     *
+     * @param grpcRequest The mapped request.
+     * @param deadline    The deadline of the check, or null.
+     * @param caller      The future handed to the caller, whose cancellation is propagated to the call.
+     * @return A future completed with the gRPC response.
+     */
+    private CompletableFuture<AuthorizationCheck.AuthorizationCheckResponse> authorizationCheckAsync(
+            AuthorizationCheck.AuthorizationCheckRequest grpcRequest, Deadline deadline, CompletableFuture<?> caller) {
+        if (decisionCache == null && coalescer == null) {
+            return callAsync(grpcRequest, deadline, caller);
+        }
+        AuthorizationCheck.AuthorizationCheckRequest key = DecisionCache.keyOf(grpcRequest);
+        AuthorizationCheck.AuthorizationCheckResponse cached = lookup(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(withRequestId(cached, grpcRequest));
+        }
+        if (coalescer == null) {
+            return callAsync(grpcRequest, deadline, caller).thenApply(grpcResponse -> cache(key, grpcResponse));
+        }
+        return coalescer.executeAsync(key, deadline, () -> sharedCall(key, grpcRequest))
+                .thenApply(grpcResponse -> withRequestId(grpcResponse, grpcRequest));
+    }
+
+    /**
+     * Starts a call shared by coalesced checks. It must outlive any single caller, so it is detached from the
+     * caller's gRPC context and cancellation and runs with the default deadline of {@link AZConfig#getDeadline()};
+     * each caller waits for it within its own deadline.
+     *
+     * @param key         The cache key.
+     * @param grpcRequest The mapped request of the caller starting the call.
+     * @return A future completed with the gRPC response.
+     */
+    private CompletableFuture<AuthorizationCheck.AuthorizationCheckResponse> sharedCall(AuthorizationCheck.AuthorizationCheckRequest key,
+                                                                                       AuthorizationCheck.AuthorizationCheckRequest grpcRequest) {
+        Deadline deadline = config.getDeadline() != null ? Deadline.after(config.getDeadline().toNanos(), TimeUnit.NANOSECONDS) : null;
+        Context previous = Context.ROOT.attach();
+        try {
+            return callAsync(grpcRequest, deadline, null).thenApply(grpcResponse -> cache(key, grpcResponse));
+        } finally {
+            Context.ROOT.detach(previous);
+        }
+    }
+
+    /**
+     * Stores a response in the decision cache, if enabled.
+     *
+     * @param key          The cache key.
+     * @param grpcResponse The response.
+     * @return The same response.
+     */
+    private AuthorizationCheck.AuthorizationCheckResponse cache(AuthorizationCheck.AuthorizationCheckRequest key,
+                                                                AuthorizationCheck.AuthorizationCheckResponse grpcResponse) {
+        if (decisionCache != null) {
+            decisionCache.put(key, grpcResponse);
+        }
+        return grpcResponse;
+    }
+
+    /**
+     * Sends a mapped request to the PDP, through the batch dispatcher when it is an atomic check and batching is enabled.
+     *
+     * @param grpcRequest The mapped request.
+     * @param deadline    The deadline of the call, or null.
+     * @return The gRPC response.
+     */
+    private AuthorizationCheck.AuthorizationCheckResponse call(AuthorizationCheck.AuthorizationCheckRequest grpcRequest, Deadline deadline) {
+        if (batcher != null && BatchDispatcher.isBatchable(grpcRequest)) {
+            return join(batcher.submit(grpcRequest, deadline));
+        }
+        if (hedger != null) {
+            return join(rpcAsync(grpcRequest, deadline, null));
+        }
+        return (deadline != null ? blockingStub.withDeadline(deadline) : blockingStub).authorizationCheck(grpcRequest);
+    }
+
+    /**
+     * Waits for a pending response, rethrowing the original failure.
+     *
+     * @param future The pending response.
+     * @param <T>    The type of the response.
+     * @return The response.
+     */
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Sends a mapped request to the PDP asynchronously, through the batch dispatcher when it is an atomic check and batching is enabled.
+     *
+     * @param grpcRequest The mapped request.
+     * @param deadline    The deadline of the call, or null.
+     * @param caller      The future handed to the caller, whose cancellation is propagated to the call, or null.
+     * @return A future completed with the gRPC response.
+     */
+    private CompletableFuture<AuthorizationCheck.AuthorizationCheckResponse> callAsync(
+            AuthorizationCheck.AuthorizationCheckRequest grpcRequest, Deadline deadline, CompletableFuture<?> caller) {
+        if (batcher != null && BatchDispatcher.isBatchable(grpcRequest)) {
+            return batcher.submit(grpcRequest, deadline);
+        }
+        return rpcAsync(grpcRequest, deadline, caller);
+    }
+
+    /**
+     * Issues the RPC, hedging it when hedging is enabled.
+     *
+     * @param grpcRequest The mapped request.
+     * @param deadline    The deadline of the call, or null.
+     * @param caller      The future handed to the caller, whose cancellation is propagated to the call, or null.
+     * @return A future completed with the raw gRPC response.
+     */
+    private CompletableFuture<AuthorizationCheck.AuthorizationCheckResponse> rpcAsync(
+            AuthorizationCheck.AuthorizationCheckRequest grpcRequest, Deadline deadline, CompletableFuture<?> caller) {
+        if (hedger == null) {
+            return invokeAsync(V1PDPServiceGrpc.getAuthorizationCheckMethod(), grpcRequest, deadline, caller);
+        }
+        return hedger.invoke(attempt -> invokeAsync(V1PDPServiceGrpc.getAuthorizationCheckMethod(), grpcRequest, deadline, attempt), caller);
+    }
+
+    /**
+     * Issues the RPC asynchronously, on the client's executor.
+     *
+     * @param method   The method, either the generated one or the direct one of {@link DirectCodec}.
+     * @param request  The request.
+     * @param deadline The deadline of the call, or null.
+     * @param caller   The future handed to the caller, whose cancellation is propagated to the call, or null.
+     * @param <ReqT>   The type of the request.
+     * @param <RespT>  The type of the response.
+     * @return A future completed with the response.
+     */
+    private <ReqT, RespT> CompletableFuture<RespT> invokeAsync(MethodDescriptor<ReqT, RespT> method, ReqT request, Deadline deadline,
+                                                               CompletableFuture<?> caller) {
+        CompletableFuture<RespT> future = new CompletableFuture<>();
+        CallOptions options = CallOptions.DEFAULT.withExecutor(executor);
+        ClientCalls.asyncUnaryCall(channel.newCall(method, deadline != null ? options.withDeadline(deadline) : options), request, new ClientResponseObserver<ReqT, RespT>() {
+            @Override
+            public void beforeStart(ClientCallStreamObserver<ReqT> requestStream) {
+                if (caller == null) {
+                    return;
+                }
+                caller.whenComplete((response, error) -> {
+                    if (caller.isCancelled()) {
+                        requestStream.cancel("Authorization check cancelled by the caller.", null);
+                    }
+                });
+            }
+
+            @Override
+            public void onNext(RespT response) {
+                future.complete(response);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                future.completeExceptionally(t);
+            }
+
+            @Override
+            public void onCompleted() {
+                if (!future.isDone()) {
+                    future.completeExceptionally(new IllegalStateException("The PDP completed the call without a response."));
+                }
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Computes the deadline of a check from its timeout and the deadline of the current gRPC context.
+     *
+     * @param timeout The timeout of the check, or null.
+     * @return The earliest of both deadlines, or null if there is none.
+     */
+    private static Deadline deadlineFor(Duration timeout) {
+        Deadline deadline = timeout != null ? Deadline.after(timeout.toNanos(), TimeUnit.NANOSECONDS) : null;
+        Deadline inherited = Context.current().getDeadline();
+        if (inherited != null && (deadline == null || inherited.isBefore(deadline))) {
+            return inherited;
+        }
+        return deadline;
+    }
+
+    /**
+     * Re-stamps a shared response with the request ID of the caller's request.
+     *
+     * @param grpcResponse The shared response.
+     * @param grpcRequest  The caller's request.
+     * @return A response carrying the caller's request ID.
+     */
+    private static AuthorizationCheck.AuthorizationCheckResponse withRequestId(AuthorizationCheck.AuthorizationCheckResponse grpcResponse,
+                                                                             AuthorizationCheck.AuthorizationCheckRequest grpcRequest) {
+        if (grpcRequest.hasRequestID()) {
+            if (grpcResponse.hasRequestID() && grpcResponse.getRequestID().equals(grpcRequest.getRequestID())) {
+                return grpcResponse;
+            }
+            return grpcResponse.toBuilder().setRequestID(grpcRequest.getRequestID()).build();
+        }
+        return grpcResponse.hasRequestID() ? grpcResponse.toBuilder().clearRequestID().build() : grpcResponse;
+    }
+
+    /**
+     * Gets the gRPC status of a failed check.
+     *
+     * @param exception The failure.
+     * @return The status code, {@code UNKNOWN} when the failure did not come from gRPC.
+     */
+    private static Status.Code statusOf(AuthorizationException exception) {
+        if (exception instanceof AuthorizationTimeoutException) {
+            return Status.Code.DEADLINE_EXCEEDED;
+        }
+        if (exception.getCause() instanceof StatusRuntimeException e) {
+            return e.getStatus().getCode();
+        }
+        if (exception.getCause() instanceof CancellationException) {
+            return Status.Code.CANCELLED;
+        }
+        return Status.Code.UNKNOWN;
+    }
+
+    /**
+     * Translates a failure raised while performing a check into an {@link AuthorizationException}.
+     *
+     * @param error The failure.
+     * @return The matching authorization exception.
+     */
+    private static AuthorizationException toAuthorizationException(Throwable error) {
+        Throwable cause = error;
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof AuthorizationException authorizationException) {
+            return authorizationException;
+        }
+        if (cause instanceof TimeoutException
+                || (cause instanceof StatusRuntimeException e && e.getStatus().getCode() == Status.Code.DEADLINE_EXCEEDED)) {
+            return new AuthorizationTimeoutException("Authorization check exceeded its deadline.", cause);
+        }
+        if (cause instanceof StatusRuntimeException) {
+            return new AuthorizationException("Authorization check failed due to gRPC error.", cause);
+        }
+        return new AuthorizationException("An unexpected error occurred.", cause);
+    }
+
+}
@@ -0,0 +1,232 @@
+/**
+ *   Copyright 2024 Nitro Agility S.r.l.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+  */
+
+package com.permguard.pep.client;
+
+import com.permguard.pep.config.BatchingConfig;
+import com.permguard.pep.internal.proto.AuthorizationCheck;
+import io.grpc.Deadline;
+import io.grpc.Status;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+/**
+ * Collects atomic checks that share the same authorization model and sends them as a single
+ * multi-evaluation request, then hands each caller the evaluation matching its position in the batch.
+ */
+class BatchDispatcher {
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final BiFunction<AuthorizationCheck.AuthorizationCheckRequest, Deadline, CompletableFuture<AuthorizationCheck.AuthorizationCheckResponse>> sender;
+    private final ScheduledExecutorService scheduler;
+    private final Map<AuthorizationCheck.AuthorizationModelRequest, Batch> pending = new HashMap<>();
+    private boolean closed;
+
+    /**
+     * Constructs a dispatcher.
+     *
+     * @param config The batching configuration.
+     * @param sender The function issuing a request to the PDP with an optional deadline.
+     */
+    BatchDispatcher(BatchingConfig config,
+                    BiFunction<AuthorizationCheck.AuthorizationCheckRequest, Deadline, CompletableFuture<AuthorizationCheck.AuthorizationCheckResponse>> sender) {
+        this.windowNanos = config.getWindow() != null ? config.getWindow().toNanos() : 0;
+        this.maxBatchSize = Math.max(1, config.getMaxBatchSize());
+        this.sender = sender;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "permguard-batch-dispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Checks whether a request is an atomic check that can join a batch.
+     *
+     * @param request The mapped request.
+     * @return True if the request has a subject, resource and action and no evaluations.
+     */
+    static boolean isBatchable(AuthorizationCheck.AuthorizationCheckRequest request) {
+        return request.getEvaluationsCount() == 0
+                && request.hasSubject() && request.hasResource() && request.hasAction();
+    }
+
+    /**
+     * Adds an atomic check to the batch of its authorization model.
+     *
+     * @param request  The mapped atomic request.
+     * @param deadline The deadline of the check, or null. A batch is sent with the latest deadline of its checks,
+     *                 or none if one of them has none; each check times out on its own deadline.
+     * @return A future completed with the response for this check alone.
+     */
+    CompletableFuture<AuthorizationCheck.AuthorizationCheckResponse> submit(AuthorizationCheck.AuthorizationCheckRequest request, Deadline deadline) {
+        CompletableFuture<AuthorizationCheck.AuthorizationCheckResponse> future = new CompletableFuture<>();
+        Batch full = null;
+        synchronized (pending) {
+            if (closed) {
+                return CompletableFuture.failedFuture(Status.UNAVAILABLE.withDescription("The client is shut down").asRuntimeException());
+            }
+            Batch batch = pending.get(request.getAuthorizationModel());
+            if (batch == null) {
+                batch = new Batch(request.getAuthorizationModel());
+                Batch scheduled = batch;
+                // The timer cannot fire before the batch is pending, since flushing takes the same lock
+                batch.timer = scheduler.schedule(() -> flush(scheduled), windowNanos, TimeUnit.NANOSECONDS);
+                pending.put(batch.model, batch);
+            }
+            batch.requests.add(request);
+            batch.futures.add(future);
+            if (deadline == null) {
+                batch.unbounded = true;
+            } else if (batch.deadline == null || batch.deadline.isBefore(deadline)) {
+                batch.deadline = deadline;
+            }
+            if (batch.requests.size() >= maxBatchSize) {
+                pending.remove(batch.model);
+                batch.timer.cancel(false);
+                full = batch;
+            }
+        }
+        if (full != null) {
+            send(full);
+        }
+        return deadline != null ? future.orTimeout(deadline.timeRemaining(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS) : future;
+    }
+
+    /**
+     * Sends every pending batch and stops the dispatcher. Checks submitted afterwards fail with {@code UNAVAILABLE}.
+     */
+    void shutdown() {
+        List<Batch> remaining;
+        synchronized (pending) {
+            closed = true;
+            remaining = new ArrayList<>(pending.values());
+            pending.clear();
+        }
+        remaining.forEach(batch -> {
+            batch.timer.cancel(false);
+            send(batch);
+        });
+        scheduler.shutdown();
+    }
+
+    private void flush(Batch batch) {
+        synchronized (pending) {
+            if (!pending.remove(batch.model, batch)) {
+                return;
+            }
+        }
+        send(batch);
+    }
+
+    private void send(Batch batch) {
+        if (batch.requests.size() == 1) {
+            // A lone check is sent as it was built
+            call(batch.requests.get(0), batch.deadline()).whenComplete((response, error) -> {
+                if (error != null) {
+                    batch.futures.get(0).completeExceptionally(error);
+                } else {
+                    batch.futures.get(0).complete(response);
+                }
+            });
+            return;
+        }
+        AuthorizationCheck.AuthorizationCheckRequest.Builder builder = AuthorizationCheck.AuthorizationCheckRequest.newBuilder()
+                .setAuthorizationModel(batch.model);
+        for (AuthorizationCheck.AuthorizationCheckRequest request : batch.requests) {
+            builder.addEvaluations(toEvaluation(request));
+        }
+        call(builder.build(), batch.deadline()).whenComplete((response, error) -> {
+            if (error == null && response.getEvaluationsCount() != batch.requests.size()) {
+                error = new IllegalStateException("The PDP returned " + response.getEvaluationsCount()
+                        + " evaluations for a batch of " + batch.requests.size() + " checks.");
+            }
+            for (int i = 0; i < batch.futures.size(); i++) {
+                if (error != null) {
+                    batch.futures.get(i).completeExceptionally(error);
+                } else {
+                    batch.futures.get(i).complete(toResponse(response.getEvaluations(i), batch.requests.get(i)));
+                }
+            }
+        });
+    }
+
+    private CompletableFuture<AuthorizationCheck.AuthorizationCheckResponse> call(AuthorizationCheck.AuthorizationCheckRequest request,
+                                                                                 Deadline deadline) {
+        try {
+            return sender.apply(request, deadline);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static AuthorizationCheck.EvaluationRequest toEvaluation(AuthorizationCheck.AuthorizationCheckRequest request) {
+        AuthorizationCheck.EvaluationRequest.Builder builder = AuthorizationCheck.EvaluationRequest.newBuilder()
+                .setSubject(request.getSubject())
+                .setResource(request.getResource())
+                .setAction(request.getAction());
+        if (request.hasRequestID()) {
+            builder.setRequestID(request.getRequestID());
+        }
+        if (request.hasContext()) {
+            builder.setContext(request.getContext());
+        }
+        return builder.build();
+    }
+
+    private static AuthorizationCheck.AuthorizationCheckResponse toResponse(AuthorizationCheck.EvaluationResponse evaluation,
+                                                                        AuthorizationCheck.AuthorizationCheckRequest request) {
+        AuthorizationCheck.AuthorizationCheckResponse.Builder builder = AuthorizationCheck.AuthorizationCheckResponse.newBuilder()
+                .setDecision(evaluation.getDecision());
+        if (request.hasRequestID()) {
+            builder.setRequestID(request.getRequestID());
+        } else if (evaluation.hasRequestID()) {
+            builder.setRequestID(evaluation.getRequestID());
+        }
+        if (evaluation.hasContext()) {
+            builder.setContext(evaluation.getContext());
+        }
+        return builder.build();
+    }
+
+    private static class Batch {
+        private final AuthorizationCheck.AuthorizationModelRequest model;
+        private final List<AuthorizationCheck.AuthorizationCheckRequest> requests = new ArrayList<>();
+        private final List<CompletableFuture<AuthorizationCheck.AuthorizationCheckResponse>> futures = new ArrayList<>();
+        private ScheduledFuture<?> timer;
+        private Deadline deadline;
+        private boolean unbounded;
+
+        private Batch(AuthorizationCheck.AuthorizationModelRequest model) {
+            this.model = model;
+        }
+
+        private Deadline deadline() {
+            return unbounded ? null : deadline;
+        }
+    }
+}
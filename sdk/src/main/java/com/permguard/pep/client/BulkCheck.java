@@ -0,0 +1,147 @@
+/**
+ *   Copyright 2024 Nitro Agility S.r.l.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+  */
+
+package com.permguard.pep.client;
+
+import com.permguard.pep.exception.AuthorizationException;
+import com.permguard.pep.model.request.AZModel;
+import com.permguard.pep.model.request.AZRequest;
+import com.permguard.pep.model.request.Evaluation;
+import com.permguard.pep.model.response.AZResponse;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Runs a bulk check: the evaluations are split into chunks sent as separate multi-evaluation checks,
+ * with a bounded number of chunks in flight. Each completed chunk starts the next one, so a slow chunk
+ * does not hold back the others. The first failure, including a chunk answered with the wrong number
+ * of evaluations, fails the bulk check, stops sending chunks and cancels the chunks in flight,
+ * as does cancelling the result.
+ */
+class BulkCheck {
+    private final AZModel model;
+    private final List<Evaluation> evaluations;
+    private final int chunkSize;
+    private final Function<AZRequest, CompletableFuture<AZResponse>> check;
+    private final BiConsumer<Integer, AZResponse> listener;
+    private final AZResponse[] chunks;
+    private final AtomicInteger next = new AtomicInteger();
+    private final AtomicInteger remaining;
+    private final Set<CompletableFuture<AZResponse>> inFlight = ConcurrentHashMap.newKeySet();
+    private final CompletableFuture<AZResponse> result = new CompletableFuture<>();
+
+    /**
+     * Constructs a bulk check.
+     *
+     * @param model       The authorization model shared by the evaluations.
+     * @param evaluations The evaluations.
+     * @param chunkSize   The number of evaluations per chunk.
+     * @param check       Performs the check of a chunk.
+     * @param listener    Receives the offset of each chunk's first evaluation and its response as it completes, or null.
+     */
+    BulkCheck(AZModel model, List<Evaluation> evaluations, int chunkSize,
+              Function<AZRequest, CompletableFuture<AZResponse>> check, BiConsumer<Integer, AZResponse> listener) {
+        this.model = model;
+        this.evaluations = evaluations;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.check = check;
+        this.listener = listener;
+        this.chunks = new AZResponse[(evaluations.size() + this.chunkSize - 1) / this.chunkSize];
+        this.remaining = new AtomicInteger(chunks.length);
+    }
+
+    /**
+     * Starts sending the chunks.
+     *
+     * @param parallelism The number of chunks in flight at the same time.
+     * @return A future completed with the merged response.
+     */
+    CompletableFuture<AZResponse> start(int parallelism) {
+        if (chunks.length == 0) {
+            result.complete(new MergedAZResponse(List.of(), chunkSize));
+            return result;
+        }
+        result.whenComplete((response, error) -> {
+            if (error != null) {
+                inFlight.forEach(pending -> pending.cancel(true));
+            }
+        });
+        for (int i = 0; i < Math.min(Math.max(1, parallelism), chunks.length); i++) {
+            sendNext();
+        }
+        return result;
+    }
+
+    private void sendNext() {
+        int index = next.getAndIncrement();
+        if (index >= chunks.length || result.isDone()) {
+            return;
+        }
+        int from = index * chunkSize;
+        List<Evaluation> chunk = evaluations.subList(from, Math.min(from + chunkSize, evaluations.size()));
+        AZRequest request = new AZRequest(null, model, null, null, null, null, chunk);
+        CompletableFuture<AZResponse> pending;
+        try {
+            pending = check.apply(request);
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+            return;
+        }
+        inFlight.add(pending);
+        if (result.isCompletedExceptionally()) {
+            pending.cancel(true);
+        }
+        pending.whenComplete((response, error) -> {
+            inFlight.remove(pending);
+            if (error == null) {
+                // Counted without converting the evaluations of a lazily mapped response
+                int count = response.evaluationCount();
+                if (count != chunk.size()) {
+                    error = new AuthorizationException("The PDP returned " + count + " evaluations for a chunk of "
+                            + chunk.size() + " evaluations.");
+                }
+            }
+            if (error != null) {
+                result.completeExceptionally(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+                return;
+            }
+            chunks[index] = response;
+            if (listener != null) {
+                try {
+                    listener.accept(from, response);
+                } catch (RuntimeException e) {
+                    result.completeExceptionally(e);
+                    return;
+                }
+            }
+            if (remaining.decrementAndGet() == 0) {
+                result.complete(new MergedAZResponse(Arrays.asList(chunks), chunkSize));
+            } else {
+                sendNext();
+            }
+        });
+    }
+}
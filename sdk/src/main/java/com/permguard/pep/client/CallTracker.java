@@ -0,0 +1,89 @@
+/**
+ *   Copyright 2024 Nitro Agility S.r.l.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+  */
+
+package com.permguard.pep.client;
+
+import com.permguard.pep.metrics.AZMetrics;
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.ClientStreamTracer;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the attempts of every call, telling apart the retries made by the channel's retry policy,
+ * and reports the size of the messages they exchange.
+ * A stream tracer is created by gRPC for each attempt of a call.
+ */
+class CallTracker extends ClientStreamTracer.Factory implements ClientInterceptor {
+    private final LongAdder attempts = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder transparentRetries = new LongAdder();
+    private final AZMetrics metrics;
+    private final ClientStreamTracer tracer;
+
+    /**
+     * Constructs a tracker reporting to the given metrics.
+     *
+     * @param metrics The metrics of the client.
+     */
+    CallTracker(AZMetrics metrics) {
+        this.metrics = metrics;
+        this.tracer = new ClientStreamTracer() {
+            @Override
+            public void outboundUncompressedSize(long bytes) {
+                metrics.recordRequestSize(bytes);
+            }
+
+            @Override
+            public void inboundUncompressedSize(long bytes) {
+                metrics.recordResponseSize(bytes);
+            }
+        };
+    }
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(MethodDescriptor<ReqT, RespT> method, CallOptions callOptions, Channel next) {
+        return next.newCall(method, callOptions.withStreamTracerFactory(this));
+    }
+
+    @Override
+    public ClientStreamTracer newClientStreamTracer(ClientStreamTracer.StreamInfo info, Metadata headers) {
+        attempts.increment();
+        if (info.isTransparentRetry()) {
+            transparentRetries.increment();
+        } else if (info.getPreviousAttempts() > 0) {
+            retries.increment();
+            metrics.recordRetry();
+        }
+        return tracer;
+    }
+
+    /**
+     * Takes a snapshot of the attempt counters.
+     *
+     * @return The retry statistics.
+     */
+    RetryStats stats() {
+        return new RetryStats(attempts.sum(), retries.sum(), transparentRetries.sum());
+    }
+}
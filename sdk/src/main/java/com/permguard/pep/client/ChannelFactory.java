@@ -0,0 +1,243 @@
+/**
+ *   Copyright 2024 Nitro Agility S.r.l.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+  */
+
+package com.permguard.pep.client;
+
+import com.permguard.pep.config.AZConfig;
+import com.permguard.pep.config.LoadBalancingPolicy;
+import com.permguard.pep.config.OutlierDetectionConfig;
+import com.permguard.pep.config.RetryConfig;
+import com.permguard.pep.config.TransportConfig;
+import com.permguard.pep.config.TransportType;
+import com.permguard.pep.internal.proto.V1PDPServiceGrpc;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.Status;
+import io.grpc.netty.NettyChannelBuilder;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Creates the gRPC channels described by an {@link AZConfig}.
+ */
+class ChannelFactory {
+    private static final String UNIX_SCHEME = "unix";
+
+    private ChannelFactory() {
+    }
+
+    /**
+     * Creates the channel pool of a client.
+     *
+     * @param config   The client configuration.
+     * @param executor The executor of the channels' callbacks, or null for the gRPC default.
+     * @return A pool of {@link AZConfig#getChannelCount()} channels.
+     */
+    static ChannelPool createPool(AZConfig config, Executor executor) {
+        int count = Math.max(1, config.getChannelCount());
+        String socketPath = domainSocketPath(config.getTarget());
+        TransportConfig transportConfig = config.getTransport() == null && socketPath != null
+                ? new TransportConfig() : config.getTransport();
+        NettyTransport transport = transportConfig != null ? new NettyTransport(transportConfig) : null;
+        if (socketPath != null && transport.type() != TransportType.EPOLL) {
+            transport.shutdown();
+            throw new IllegalStateException("A Unix domain socket target requires the epoll transport, "
+                    + "provided by io.netty:netty-transport-native-epoll with the native library of the platform");
+        }
+        List<ManagedChannel> channels = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            channels.add(createChannel(config, executor, transport));
+        }
+        return new ChannelPool(channels, config.getChannelSelectionPolicy(), transport);
+    }
+
+    /**
+     * Creates a single channel to the PDP.
+     *
+     * @param config    The client configuration.
+     * @param executor  The executor of the channel's callbacks, or null for the gRPC default.
+     * @param transport The Netty transport of the channel, or null for the gRPC default.
+     * @return A new managed channel.
+     */
+    static ManagedChannel createChannel(AZConfig config, Executor executor, NettyTransport transport) {
+        ManagedChannelBuilder<?> builder;
+        String socketPath = domainSocketPath(config.getTarget());
+        if (socketPath != null) {
+            builder = transport.forDomainSocket(socketPath);
+        } else if (config.getTarget() != null) {
+            builder = transport != null
+                    ? transport.configure(NettyChannelBuilder.forTarget(config.getTarget())) : ManagedChannelBuilder.forTarget(config.getTarget());
+        } else if (hasEndpoints(config)) {
+            builder = forEndpoints(config, transport);
+        } else if (transport != null) {
+            builder = transport.configure(NettyChannelBuilder.forAddress(config.getHost(), config.getPort()));
+        } else {
+            builder = ManagedChannelBuilder.forAddress(config.getHost(), config.getPort());
+        }
+        if (config.isUsePlaintext()) {
+            builder.usePlaintext();
+        }
+        if (executor != null) {
+            builder.executor(executor);
+        }
+        RetryConfig retry = retryConfig(config);
+        if (hasEndpoints(config) || retry != null) {
+            builder.defaultServiceConfig(serviceConfig(config, retry));
+        }
+        if (retry != null) {
+            builder.enableRetry();
+        }
+        return builder.build();
+    }
+
+    private static boolean hasEndpoints(AZConfig config) {
+        return config.getTarget() == null
+                && (config.getEndpointsFile() != null || (config.getEndpoints() != null && !config.getEndpoints().isEmpty()));
+    }
+
+    /**
+     * Extracts the socket path of a {@code unix:} target, either {@code unix:///absolute/path} or {@code unix:path}.
+     *
+     * @param target The target, or null.
+     * @return The socket path, or null if the target is not a Unix domain socket.
+     */
+    private static String domainSocketPath(String target) {
+        if (target == null || !target.startsWith(UNIX_SCHEME + ":")) {
+            return null;
+        }
+        URI uri = URI.create(target);
+        return uri.isOpaque() ? uri.getSchemeSpecificPart() : uri.getPath();
+    }
+
+    @SuppressWarnings("deprecation") // A per-channel resolver avoids registering global state in the NameResolverRegistry
+    private static ManagedChannelBuilder<?> forEndpoints(AZConfig config, NettyTransport transport) {
+        String authority = config.getHost() + ":" + config.getPort();
+        String target = EndpointNameResolver.SCHEME + ":///" + authority;
+        ManagedChannelBuilder<?> builder = transport != null
+                ? transport.configure(NettyChannelBuilder.forTarget(target)) : ManagedChannelBuilder.forTarget(target);
+        return builder.nameResolverFactory(EndpointNameResolver.factory(authority, config.getEndpoints(),
+                        config.getEndpointsFile(), config.getEndpointsRefreshInterval(), config.getPort()));
+    }
+
+    /**
+     * Validates the retry configuration up front, since gRPC only reports an invalid default service config.
+     *
+     * @param config The client configuration.
+     * @return The retry configuration, or null if retries are disabled, including with a single attempt.
+     * @throws IllegalArgumentException If a setting of the retry configuration is invalid.
+     */
+    private static RetryConfig retryConfig(AZConfig config) {
+        RetryConfig retry = config.getRetry();
+        if (retry == null) {
+            return null;
+        }
+        if (retry.getMaxAttempts() < 1) {
+            throw new IllegalArgumentException("Retry maxAttempts must be at least 1, was " + retry.getMaxAttempts());
+        }
+        if (retry.getMaxAttempts() == 1) {
+            return null;
+        }
+        if (retry.getRetryableStatusCodes() == null || retry.getRetryableStatusCodes().isEmpty()) {
+            throw new IllegalArgumentException("Retry retryableStatusCodes must not be empty");
+        }
+        requirePositive("initialBackoff", retry.getInitialBackoff());
+        requirePositive("maxBackoff", retry.getMaxBackoff());
+        if (!(retry.getBackoffMultiplier() > 0)) {
+            throw new IllegalArgumentException("Retry backoffMultiplier must be positive, was " + retry.getBackoffMultiplier());
+        }
+        if (retry.getMaxTokens() < 1 || retry.getMaxTokens() > 1000) {
+            throw new IllegalArgumentException("Retry maxTokens must be between 1 and 1000, was " + retry.getMaxTokens());
+        }
+        if (!(retry.getTokenRatio() > 0)) {
+            throw new IllegalArgumentException("Retry tokenRatio must be positive, was " + retry.getTokenRatio());
+        }
+        return retry;
+    }
+
+    private static void requirePositive(String name, Duration duration) {
+        if (duration == null || duration.isNegative() || duration.isZero()) {
+            throw new IllegalArgumentException("Retry " + name + " must be positive, was " + duration);
+        }
+    }
+
+    /**
+     * Builds the service config selecting the load balancing policy of the endpoints, wrapped in outlier detection
+     * when enabled, and the retry policy of the PDP service.
+     *
+     * @param config The client configuration.
+     * @param retry  The validated retry configuration, or null if retries are disabled.
+     * @return The service config as a JSON-like map.
+     */
+    private static Map<String, Object> serviceConfig(AZConfig config, RetryConfig retry) {
+        Map<String, Object> serviceConfig = new LinkedHashMap<>();
+        if (hasEndpoints(config)) {
+            serviceConfig.put("loadBalancingConfig", List.of(loadBalancingConfig(config)));
+        }
+        if (retry != null) {
+            List<Object> codes = new ArrayList<>();
+            for (Status.Code code : retry.getRetryableStatusCodes()) {
+                codes.add(code.name());
+            }
+            Map<String, Object> retryPolicy = new LinkedHashMap<>();
+            retryPolicy.put("maxAttempts", (double) retry.getMaxAttempts());
+            retryPolicy.put("initialBackoff", duration(retry.getInitialBackoff()));
+            retryPolicy.put("maxBackoff", duration(retry.getMaxBackoff()));
+            retryPolicy.put("backoffMultiplier", retry.getBackoffMultiplier());
+            retryPolicy.put("retryableStatusCodes", codes);
+            serviceConfig.put("methodConfig", List.of(Map.of(
+                    "name", List.of(Map.of("service", V1PDPServiceGrpc.SERVICE_NAME)),
+                    "retryPolicy", retryPolicy)));
+            serviceConfig.put("retryThrottling", Map.of(
+                    "maxTokens", (double) retry.getMaxTokens(),
+                    "tokenRatio", retry.getTokenRatio()));
+        }
+        return serviceConfig;
+    }
+
+    private static Map<String, Object> loadBalancingConfig(AZConfig config) {
+        LoadBalancingPolicy policy = config.getLoadBalancingPolicy() != null
+                ? config.getLoadBalancingPolicy() : LoadBalancingPolicy.ROUND_ROBIN;
+        Map<String, Object> lbConfig = Map.of(policy.getPolicyName(), Map.of());
+        OutlierDetectionConfig outlier = config.getOutlierDetection();
+        if (outlier != null) {
+            Map<String, Object> detection = new LinkedHashMap<>();
+            detection.put("interval", duration(outlier.getInterval()));
+            detection.put("baseEjectionTime", duration(outlier.getBaseEjectionTime()));
+            detection.put("maxEjectionTime", duration(outlier.getMaxEjectionTime()));
+            detection.put("maxEjectionPercentage", (double) outlier.getMaxEjectionPercentage());
+            detection.put("failurePercentageEjection", Map.of(
+                    "threshold", (double) outlier.getFailurePercentageThreshold(),
+                    "enforcementPercentage", 100.0,
+                    "minimumHosts", (double) outlier.getMinimumHosts(),
+                    "requestVolume", (double) outlier.getRequestVolume()));
+            detection.put("childPolicy", List.of(lbConfig));
+            lbConfig = Map.of("outlier_detection_experimental", detection);
+        }
+        return lbConfig;
+    }
+
+    private static String duration(Duration duration) {
+        return String.format("%d.%09ds", duration.getSeconds(), duration.getNano());
+    }
+}
@@ -0,0 +1,189 @@
+/**
+ *   Copyright 2024 Nitro Agility S.r.l.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+  */
+
+package com.permguard.pep.client;
+
+import com.permguard.pep.config.ChannelSelectionPolicy;
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ConnectivityState;
+import io.grpc.ForwardingClientCall;
+import io.grpc.ForwardingClientCallListener;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A {@link Channel} spreading calls over several {@link ManagedChannel}s, each with its own HTTP/2 connection,
+ * so that a single connection's concurrent stream limit does not cap throughput.
+ * Channels in {@link ConnectivityState#TRANSIENT_FAILURE} are skipped while a healthier channel is available.
+ */
+class ChannelPool extends Channel {
+    private final ManagedChannel[] channels;
+    private final AtomicInteger[] outstanding;
+    private final ChannelSelectionPolicy policy;
+    private final NettyTransport transport;
+    private final AtomicInteger next = new AtomicInteger();
+
+    /**
+     * Constructs a pool over the given channels.
+     *
+     * @param channels The channels to spread calls over.
+     * @param policy   The selection strategy.
+     */
+    ChannelPool(List<ManagedChannel> channels, ChannelSelectionPolicy policy) {
+        this(channels, policy, null);
+    }
+
+    /**
+     * Constructs a pool over the given channels, which owns their Netty transport.
+     *
+     * @param channels  The channels to spread calls over.
+     * @param policy    The selection strategy.
+     * @param transport The transport shared by the channels, shut down after them, or null if they use the gRPC default.
+     */
+    ChannelPool(List<ManagedChannel> channels, ChannelSelectionPolicy policy, NettyTransport transport) {
+        this.channels = channels.toArray(new ManagedChannel[0]);
+        this.outstanding = new AtomicInteger[this.channels.length];
+        for (int i = 0; i < outstanding.length; i++) {
+            outstanding[i] = new AtomicInteger();
+        }
+        this.policy = policy != null ? policy : ChannelSelectionPolicy.ROUND_ROBIN;
+        this.transport = transport;
+    }
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> newCall(MethodDescriptor<ReqT, RespT> method, CallOptions callOptions) {
+        if (channels.length == 1) {
+            return channels[0].newCall(method, callOptions);
+        }
+        int index = policy == ChannelSelectionPolicy.LEAST_OUTSTANDING ? leastOutstanding() : roundRobin();
+        ClientCall<ReqT, RespT> call = channels[index].newCall(method, callOptions);
+        if (policy != ChannelSelectionPolicy.LEAST_OUTSTANDING) {
+            return call;
+        }
+        AtomicInteger counter = outstanding[index];
+        return new ForwardingClientCall.SimpleForwardingClientCall<>(call) {
+            @Override
+            public void start(Listener<RespT> responseListener, Metadata headers) {
+                counter.incrementAndGet();
+                super.start(new ForwardingClientCallListener.SimpleForwardingClientCallListener<>(responseListener) {
+                    @Override
+                    public void onClose(Status status, Metadata trailers) {
+                        counter.decrementAndGet();
+                        super.onClose(status, trailers);
+                    }
+                }, headers);
+            }
+        };
+    }
+
+    @Override
+    public String authority() {
+        return channels[0].authority();
+    }
+
+    /**
+     * Gets the Netty transport of the channels.
+     *
+     * @return The transport, or null if the channels use the gRPC default.
+     */
+    NettyTransport transport() {
+        return transport;
+    }
+
+    /**
+     * Initiates an orderly shutdown of every channel. Their transport keeps running until {@link #shutdownTransport()}.
+     */
+    void shutdown() {
+        for (ManagedChannel channel : channels) {
+            if (!channel.isShutdown()) {
+                channel.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Shuts down the Netty transport of the channels, if any. The calls still in flight on the channels fail,
+     * so it is meant to follow {@link #awaitTermination(Duration)}.
+     */
+    void shutdownTransport() {
+        if (transport != null) {
+            transport.shutdown();
+        }
+    }
+
+    /**
+     * Waits for every channel to terminate after {@link #shutdown()}, i.e. for the calls in flight to complete.
+     *
+     * @param timeout The maximum time to wait for all channels.
+     * @return True if every channel terminated in time.
+     */
+    boolean awaitTermination(Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        try {
+            for (ManagedChannel channel : channels) {
+                if (!channel.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private int roundRobin() {
+        int start = Math.floorMod(next.getAndIncrement(), channels.length);
+        for (int i = 0; i < channels.length; i++) {
+            int index = (start + i) % channels.length;
+            if (isHealthy(index)) {
+                return index;
+            }
+        }
+        return start;
+    }
+
+    private int leastOutstanding() {
+        int start = Math.floorMod(next.getAndIncrement(), channels.length);
+        int best = -1;
+        int bestCount = Integer.MAX_VALUE;
+        for (int i = 0; i < channels.length; i++) {
+            int index = (start + i) % channels.length;
+            int count = outstanding[index].get();
+            if (count < bestCount && isHealthy(index)) {
+                best = index;
+                bestCount = count;
+            }
+        }
+        return best >= 0 ? best : start;
+    }
+
+    private boolean isHealthy(int index) {
+        ConnectivityState state = channels[index].getState(false);
+        return state != ConnectivityState.TRANSIENT_FAILURE && state != ConnectivityState.SHUTDOWN;
+    }
+}
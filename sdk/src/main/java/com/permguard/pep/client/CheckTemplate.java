@@ -0,0 +1,145 @@
+/**
+ *   Copyright 2024 Nitro Agility S.r.l.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+  */
+
+package com.permguard.pep.client;
+
+import com.permguard.pep.exception.AuthorizationException;
+import com.permguard.pep.internal.proto.AuthorizationCheck;
+import com.permguard.pep.model.request.AZRequest;
+import com.permguard.pep.model.response.AZResponse;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A pre-mapped authorization check for requests that differ only in subject ID, resource ID and action name.
+ * The authorization model, the subject, resource and action properties and the context of the prototype request
+ * are converted to protobuf once, and each check only fills in the varying fields.
+ * Templates are created by {@link AZClient#template(AZRequest)}; they are immutable and thread-safe.
+ */
+public class CheckTemplate {
+    private final AZClient client;
+    private final Mapper mapper;
+    private final AZRequest prototype;
+    private final AuthorizationCheck.AuthorizationCheckRequest base;
+
+    /**
+     * Constructs a template by mapping a prototype.
+     *
+     * @param client    The client performing the checks.
+     * @param mapper    The mapper converting the prototype.
+     * @param prototype The prototype request.
+     */
+    CheckTemplate(AZClient client, Mapper mapper, AZRequest prototype) {
+        if (prototype.getSubject() == null || prototype.getResource() == null || prototype.getAction() == null
+                || (prototype.getEvaluations() != null && !prototype.getEvaluations().isEmpty())) {
+            throw new IllegalArgumentException("A check template needs an atomic prototype with a subject, a resource and an action.");
+        }
+        this.client = client;
+        this.mapper = mapper;
+        this.prototype = prototype;
+        this.base = mapper.mapAuthorizationCheckRequest(prototype);
+    }
+
+    /**
+     * Performs a check within the client's default deadline, keeping the prototype's request ID.
+     *
+     * @param subjectId  The subject ID, or null to keep the prototype's.
+     * @param resourceId The resource ID, or null to keep the prototype's.
+     * @param actionName The action name, or null to keep the prototype's.
+     * @return The response from the PDP.
+     * @throws AuthorizationException If the check fails.
+     */
+    public AZResponse check(String subjectId, String resourceId, String actionName) {
+        return check(subjectId, resourceId, actionName, null, client.defaultTimeout());
+    }
+
+    /**
+     * Performs a check within the given timeout.
+     *
+     * @param subjectId  The subject ID, or null to keep the prototype's.
+     * @param resourceId The resource ID, or null to keep the prototype's.
+     * @param actionName The action name, or null to keep the prototype's.
+     * @param requestId  The request ID, or null to keep the prototype's.
+     * @param timeout    The maximum duration of the check, or null for no deadline.
+     * @return The response from the PDP.
+     * @throws AuthorizationException If the check fails.
+     */
+    public AZResponse check(String subjectId, String resourceId, String actionName, String requestId, Duration timeout) {
+        return client.check(prototype, () -> request(subjectId, resourceId, actionName, requestId), timeout);
+    }
+
+    /**
+     * Performs a check without blocking the calling thread, within the client's default deadline,
+     * keeping the prototype's request ID.
+     *
+     * @param subjectId  The subject ID, or null to keep the prototype's.
+     * @param resourceId The resource ID, or null to keep the prototype's.
+     * @param actionName The action name, or null to keep the prototype's.
+     * @return A future completed with the response from the PDP, or exceptionally with an {@link AuthorizationException}.
+     */
+    public CompletableFuture<AZResponse> checkAsync(String subjectId, String resourceId, String actionName) {
+        return checkAsync(subjectId, resourceId, actionName, null, client.defaultTimeout());
+    }
+
+    /**
+     * Performs a check without blocking the calling thread, within the given timeout.
+     *
+     * @param subjectId  The subject ID, or null to keep the prototype's.
+     * @param resourceId The resource ID, or null to keep the prototype's.
+     * @param actionName The action name, or null to keep the prototype's.
+     * @param requestId  The request ID, or null to keep the prototype's.
+     * @param timeout    The maximum duration of the check, or null for no deadline.
+     * @return A future completed with the response from the PDP, or exceptionally with an {@link AuthorizationException}.
+     */
+    public CompletableFuture<AZResponse> checkAsync(String subjectId, String resourceId, String actionName, String requestId,
+                                                    Duration timeout) {
+        return client.checkAsync(prototype, () -> request(subjectId, resourceId, actionName, requestId), timeout);
+    }
+
+    /**
+     * Fills the varying fields into the mapped prototype.
+     * The unchanged sub-messages, such as the authorization model and the properties, are shared rather than copied.
+     *
+     * @param subjectId  The subject ID, or null to keep the prototype's.
+     * @param resourceId The resource ID, or null to keep the prototype's.
+     * @param actionName The action name, or null to keep the prototype's.
+     * @param requestId  The request ID, or null to keep the prototype's.
+     * @return The gRPC request.
+     */
+    AuthorizationCheck.AuthorizationCheckRequest request(String subjectId, String resourceId, String actionName, String requestId) {
+        AuthorizationCheck.AuthorizationCheckRequest.Builder builder = base.toBuilder();
+        if (prototype.getAuthorizationModel().getEntities() instanceof RegisteredEntities) {
+            // Picks up the current version of the registered entities
+            builder.setAuthorizationModel(mapper.mapModel(prototype.getAuthorizationModel()));
+        }
+        if (requestId != null) {
+            builder.setRequestID(requestId);
+        }
+        if (subjectId != null) {
+            builder.setSubject(base.getSubject().toBuilder().setID(subjectId));
+        }
+        if (resourceId != null) {
+            builder.setResource(base.getResource().toBuilder().setID(resourceId));
+        }
+        if (actionName != null) {
+            builder.setAction(base.getAction().toBuilder().setNameBytes(mapper.utf8(actionName)));
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,141 @@
+/**
+ *   Copyright 2024 Nitro Agility S.r.l.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+  */
+
+package com.permguard.pep.client;
+
+import com.permguard.pep.config.DecisionCacheConfig;
+import com.permguard.pep.internal.proto.AuthorizationCheck;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Size-bounded LRU cache of PDP decisions with per-entry expiration.
+ * Entries are keyed by the mapped request with its request ID cleared, so protobuf content
+ * equality gives a canonical key regardless of map ordering in properties and context.
+ */
+class DecisionCache {
+    private final long ttlNanos;
+    private final long negativeTtlNanos;
+    private final int maxEntries;
+    private final long maxWeight;
+    private final LinkedHashMap<AuthorizationCheck.AuthorizationCheckRequest, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private long weight;
+
+    /**
+     * Constructs a cache with the given configuration.
+     *
+     * @param config The cache configuration.
+     */
+    DecisionCache(DecisionCacheConfig config) {
+        this.ttlNanos = config.getTtl() != null ? config.getTtl().toNanos() : 0;
+        this.negativeTtlNanos = config.getNegativeTtl() != null ? config.getNegativeTtl().toNanos() : 0;
+        this.maxEntries = config.getMaxEntries();
+        this.maxWeight = config.getMaxWeight();
+    }
+
+    /**
+     * Computes the cache key of a request.
+     *
+     * @param request The mapped request.
+     * @return The request without its request ID.
+     */
+    static AuthorizationCheck.AuthorizationCheckRequest keyOf(AuthorizationCheck.AuthorizationCheckRequest request) {
+        return request.hasRequestID() ? request.toBuilder().clearRequestID().build() : request;
+    }
+
+    /**
+     * Looks up a cached decision.
+     *
+     * @param key The cache key.
+     * @return The cached response, or null if absent or expired.
+     */
+    AuthorizationCheck.AuthorizationCheckResponse get(AuthorizationCheck.AuthorizationCheckRequest key) {
+        long now = System.nanoTime();
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && now - entry.expiresAt < 0) {
+                hits.increment();
+                return entry.response;
+            }
+            if (entry != null) {
+                entries.remove(key);
+                weight -= entry.weight;
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Stores a decision, evicting the least recently used entries when the cache is over its bounds.
+     *
+     * @param key      The cache key.
+     * @param response The response to cache.
+     */
+    void put(AuthorizationCheck.AuthorizationCheckRequest key, AuthorizationCheck.AuthorizationCheckResponse response) {
+        long ttl = response.getDecision() ? ttlNanos : negativeTtlNanos;
+        long entryWeight = (long) key.getSerializedSize() + response.getSerializedSize();
+        if (ttl <= 0 || maxEntries <= 0 || (maxWeight > 0 && entryWeight > maxWeight)) {
+            return;
+        }
+        Entry entry = new Entry(response, System.nanoTime() + ttl, entryWeight);
+        synchronized (entries) {
+            Entry previous = entries.put(key, entry);
+            if (previous != null) {
+                weight -= previous.weight;
+            }
+            weight += entryWeight;
+            Iterator<Map.Entry<AuthorizationCheck.AuthorizationCheckRequest, Entry>> eldest = entries.entrySet().iterator();
+            while (eldest.hasNext() && (entries.size() > maxEntries || (maxWeight > 0 && weight > maxWeight))) {
+                weight -= eldest.next().getValue().weight;
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    /**
+     * Removes all cached decisions.
+     */
+    void clear() {
+        synchronized (entries) {
+            entries.clear();
+            weight = 0;
+        }
+    }
+
+    /**
+     * Takes a snapshot of the cache counters.
+     *
+     * @return The cache statistics.
+     */
+    DecisionCacheStats stats() {
+        synchronized (entries) {
+            return new DecisionCacheStats(hits.sum(), misses.sum(), evictions.sum(), entries.size(), weight);
+        }
+    }
+
+    private record Entry(AuthorizationCheck.AuthorizationCheckResponse response, long expiresAt, long weight) {
+    }
+}
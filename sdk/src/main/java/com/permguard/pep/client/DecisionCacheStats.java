@@ -0,0 +1,102 @@
+/**
+ *   Copyright 2024 Nitro Agility S.r.l.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+  */
+
+package com.permguard.pep.client;
+
+/**
+ * Point-in-time statistics of the client-side decision cache.
+ */
+public class DecisionCacheStats {
+    private final long hitCount;
+    private final long missCount;
+    private final long evictionCount;
+    private final int size;
+    private final long weight;
+
+    /**
+     * Constructor with parameters.
+     *
+     * @param hitCount      The number of lookups answered from the cache.
+     * @param missCount     The number of lookups that went to the PDP.
+     * @param evictionCount The number of entries evicted to honour the size bounds.
+     * @param size          The current number of entries.
+     * @param weight        The current total size in bytes of the cached data.
+     */
+    public DecisionCacheStats(long hitCount, long missCount, long evictionCount, int size, long weight) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.size = size;
+        this.weight = weight;
+    }
+
+    /**
+     * Gets the number of lookups answered from the cache.
+     *
+     * @return The hit count.
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Gets the number of lookups that went to the PDP.
+     *
+     * @return The miss count.
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Gets the number of entries evicted to honour the size bounds.
+     *
+     * @return The eviction count.
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Gets the current number of entries.
+     *
+     * @return The number of cached decisions.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Gets the current total size in bytes of the cached data.
+     *
+     * @return The cache weight.
+     */
+    public long getWeight() {
+        return weight;
+    }
+
+    /**
+     * Gets the ratio of lookups answered from the cache.
+     *
+     * @return The hit rate between 0 and 1.
+     */
+    public double getHitRate() {
+        long total = hitCount + missCount;
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+}
@@ -0,0 +1,834 @@
+/**
+ *   Copyright 2024 Nitro Agility S.r.l.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+  */
+
+package com.permguard.pep.client;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.MessageLite;
+import com.google.protobuf.Value;
+import com.google.protobuf.WireFormat;
+import com.permguard.pep.internal.proto.AuthorizationCheck;
+import com.permguard.pep.internal.proto.V1PDPServiceGrpc;
+import com.permguard.pep.model.request.*;
+import com.permguard.pep.model.response.AZResponse;
+import com.permguard.pep.model.response.ContextResponse;
+import com.permguard.pep.model.response.EvaluationResponse;
+import com.permguard.pep.model.response.ReasonResponse;
+import com.permguard.pep.tracing.EncodedAZRequest;
+import com.permguard.pep.utils.GrpcStructMapper;
+import io.grpc.Drainable;
+import io.grpc.KnownLength;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodes {@link AZRequest}s straight to the protobuf wire format and parses responses straight into {@link AZResponse}s,
+ * without building the generated message objects.
+ * <p>
+ * Encoding runs in two passes over the request. {@link #encode(AZRequest)} computes the length of every nested message,
+ * which validates the request and fails the check before any call is made; the marshaller then writes the request
+ * into the gRPC transport, reusing those lengths. The output is byte-for-byte the serialization of the message built by
+ * {@link Mapper}: fields in field-number order, empty implicit-presence fields omitted, and struct entries in the
+ * iteration order of their maps. The request must not be modified while the check is in progress.
+ */
+class DirectCodec {
+
+    // Field numbers of authorization_check.proto
+    private static final int REQUEST_MODEL = 1;
+    private static final int REQUEST_ID = 2;
+    private static final int REQUEST_SUBJECT = 3;
+    private static final int REQUEST_RESOURCE = 4;
+    private static final int REQUEST_ACTION = 5;
+    private static final int REQUEST_CONTEXT = 6;
+    private static final int REQUEST_EVALUATIONS = 7;
+    private static final int MODEL_ZONE_ID = 1;
+    private static final int MODEL_POLICY_STORE = 2;
+    private static final int MODEL_PRINCIPAL = 3;
+    private static final int MODEL_ENTITIES = 4;
+    private static final int POLICY_STORE_KIND = 1;
+    private static final int POLICY_STORE_ID = 2;
+    private static final int PRINCIPAL_TYPE = 1;
+    private static final int PRINCIPAL_ID = 2;
+    private static final int PRINCIPAL_SOURCE = 3;
+    private static final int ENTITIES_SCHEMA = 1;
+    private static final int ENTITIES_ITEMS = 2;
+    private static final int SUBJECT_TYPE = 1;
+    private static final int SUBJECT_ID = 2;
+    private static final int SUBJECT_SOURCE = 3;
+    private static final int SUBJECT_PROPERTIES = 4;
+    private static final int RESOURCE_TYPE = 1;
+    private static final int RESOURCE_ID = 2;
+    private static final int RESOURCE_PROPERTIES = 3;
+    private static final int ACTION_NAME = 1;
+    private static final int ACTION_PROPERTIES = 2;
+    private static final int EVALUATION_ID = 1;
+    private static final int EVALUATION_SUBJECT = 2;
+    private static final int EVALUATION_RESOURCE = 3;
+    private static final int EVALUATION_ACTION = 4;
+    private static final int EVALUATION_CONTEXT = 5;
+    private static final int RESPONSE_DECISION = 1;
+    private static final int RESPONSE_ID = 2;
+    private static final int RESPONSE_CONTEXT = 3;
+    private static final int RESPONSE_EVALUATIONS = 4;
+    private static final int EVALUATION_RESPONSE_DECISION = 1;
+    private static final int EVALUATION_RESPONSE_ID = 2;
+    private static final int EVALUATION_RESPONSE_CONTEXT = 3;
+    private static final int CONTEXT_ID = 1;
+    private static final int CONTEXT_REASON_ADMIN = 2;
+    private static final int CONTEXT_REASON_USER = 3;
+    private static final int REASON_CODE = 1;
+    private static final int REASON_MESSAGE = 2;
+
+    // Field numbers of google/protobuf/struct.proto
+    private static final int STRUCT_FIELDS = 1;
+    private static final int ENTRY_KEY = 1;
+    private static final int ENTRY_VALUE = 2;
+    private static final int VALUE_NULL = 1;
+    private static final int VALUE_NUMBER = 2;
+    private static final int VALUE_STRING = 3;
+    private static final int VALUE_BOOL = 4;
+    private static final int VALUE_STRUCT = 5;
+    private static final int VALUE_LIST = 6;
+    private static final int LIST_VALUES = 1;
+
+    private static final int MAX_BUFFER_SIZE = 4096;
+
+    /**
+     * The authorization check method, exchanging encoded requests and parsed responses.
+     * It has the same full name as the generated method, so the service configuration applies to both.
+     */
+    static final MethodDescriptor<EncodedRequest, AZResponse> AUTHORIZATION_CHECK = MethodDescriptor.<EncodedRequest, AZResponse>newBuilder()
+            .setType(MethodDescriptor.MethodType.UNARY)
+            .setFullMethodName(V1PDPServiceGrpc.getAuthorizationCheckMethod().getFullMethodName())
+            .setSampledToLocalTracing(true)
+            .setRequestMarshaller(new RequestMarshaller())
+            .setResponseMarshaller(new ResponseMarshaller())
+            .build();
+
+    private final Mapper mapper;
+
+    /**
+     * Constructs a codec.
+     *
+     * @param mapper The mapper whose entity and string caches, if enabled, provide the encoded entities and identifiers.
+     */
+    DirectCodec(Mapper mapper) {
+        this.mapper = mapper;
+    }
+
+    /**
+     * Prepares a request for the wire by computing the lengths of its nested messages.
+     *
+     * @param request The request.
+     * @return The encoded request, written to the transport by the marshaller.
+     * @throws RuntimeException If the request cannot be converted.
+     */
+    EncodedRequest encode(AZRequest request) {
+        Sizer sizer = new Sizer(mapper);
+        int size = sizer.request(request);
+        return new EncodedRequest(request, size, sizer.lengths, sizer.messages.toArray(), mapper.strings());
+    }
+
+    /**
+     * A request whose nested message lengths are known, ready to be written.
+     * Entity payloads and values converted through Jackson are kept as the messages written in their place.
+     */
+    static final class EncodedRequest implements EncodedAZRequest {
+        private final AZRequest request;
+        private final int size;
+        private final int[] lengths;
+        private final Object[] messages;
+        private final Utf8Cache strings;
+
+        private EncodedRequest(AZRequest request, int size, int[] lengths, Object[] messages, Utf8Cache strings) {
+            this.request = request;
+            this.size = size;
+            this.lengths = lengths;
+            this.messages = messages;
+            this.strings = strings;
+        }
+
+        @Override
+        public AZRequest request() {
+            return request;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Writes the request.
+         *
+         * @param output The output.
+         * @throws IOException If the output fails.
+         */
+        void writeTo(CodedOutputStream output) throws IOException {
+            new Writer(output, lengths, messages, strings).request(request);
+        }
+
+        /**
+         * Encodes the request into a byte array.
+         *
+         * @return The encoded request.
+         */
+        byte[] toByteArray() {
+            byte[] bytes = new byte[size];
+            CodedOutputStream output = CodedOutputStream.newInstance(bytes);
+            try {
+                writeTo(output);
+            } catch (IOException e) {
+                throw new IllegalStateException("Writing to a byte array failed", e);
+            }
+            output.checkNoSpaceLeft();
+            return bytes;
+        }
+    }
+
+    /**
+     * Computes the size of a request. The length of each nested message is stored in the order the writer
+     * reaches its tag, i.e. a slot is reserved before the message content is sized.
+     */
+    private static final class Sizer {
+        private final Mapper mapper;
+        private final List<Object> messages = new ArrayList<>();
+        private int[] lengths = new int[64];
+        private int count;
+
+        Sizer(Mapper mapper) {
+            this.mapper = mapper;
+        }
+
+        int request(AZRequest request) {
+            int size = 0;
+            if (request.getAuthorizationModel() != null) {
+                size += nested(REQUEST_MODEL, reserve(), model(request.getAuthorizationModel()));
+            }
+            size += CodedOutputStream.computeStringSize(REQUEST_ID, request.getRequestId() != null ? request.getRequestId() : "");
+            if (request.getSubject() != null) {
+                size += nested(REQUEST_SUBJECT, reserve(), subject(request.getSubject()));
+            }
+            if (request.getResource() != null) {
+                size += nested(REQUEST_RESOURCE, reserve(), resource(request.getResource()));
+            }
+            if (request.getAction() != null) {
+                size += nested(REQUEST_ACTION, reserve(), action(request.getAction()));
+            }
+            if (request.getContext() != null) {
+                size += nested(REQUEST_CONTEXT, reserve(), struct(request.getContext()));
+            }
+            if (request.getEvaluations() != null) {
+                for (Evaluation evaluation : request.getEvaluations()) {
+                    size += nested(REQUEST_EVALUATIONS, reserve(), evaluation(evaluation));
+                }
+            }
+            return size;
+        }
+
+        private int model(AZModel model) {
+            int size = model.getZoneId() != 0 ? CodedOutputStream.computeInt64Size(MODEL_ZONE_ID, model.getZoneId()) : 0;
+            if (model.getPolicyStore() != null) {
+                size += nested(MODEL_POLICY_STORE, reserve(), implicitString(POLICY_STORE_KIND, model.getPolicyStore().getKind())
+                        + implicitString(POLICY_STORE_ID, model.getPolicyStore().getId()));
+            }
+            if (model.getPrincipal() != null) {
+                Principal principal = model.getPrincipal();
+                size += nested(MODEL_PRINCIPAL, reserve(), implicitString(PRINCIPAL_TYPE, principal.getType())
+                        + implicitString(PRINCIPAL_ID, principal.getId()) + optionalString(PRINCIPAL_SOURCE, principal.getSource()));
+            }
+            Entities entities = model.getEntities();
+            if (entities instanceof RegisteredEntities registered) {
+                ByteString payload = registered.payload();
+                messages.add(payload);
+                size += CodedOutputStream.computeBytesSize(MODEL_ENTITIES, payload);
+            } else if (entities != null) {
+                AuthorizationCheck.Entities cached = mapper.cachedEntities(entities);
+                if (cached != null) {
+                    messages.add(cached);
+                    size += CodedOutputStream.computeMessageSize(MODEL_ENTITIES, cached);
+                } else {
+                    size += nested(MODEL_ENTITIES, reserve(), entities(entities));
+                }
+            }
+            return size;
+        }
+
+        private int entities(Entities entities) {
+            int size = implicitString(ENTITIES_SCHEMA, entities.getSchema());
+            if (entities.getItems() != null) {
+                for (Map<String, Object> item : entities.getItems()) {
+                    if (item == null) {
+                        throw new IllegalArgumentException("Entity items must not be null");
+                    }
+                    size += nested(ENTITIES_ITEMS, reserve(), struct(item));
+                }
+            }
+            return size;
+        }
+
+        private int subject(Subject subject) {
+            int size = implicitString(SUBJECT_TYPE, subject.getType()) + implicitString(SUBJECT_ID, subject.getId())
+                    + optionalString(SUBJECT_SOURCE, subject.getSource());
+            if (subject.getProperties() != null) {
+                size += nested(SUBJECT_PROPERTIES, reserve(), struct(subject.getProperties()));
+            }
+            return size;
+        }
+
+        private int resource(Resource resource) {
+            int size = implicitString(RESOURCE_TYPE, resource.getType()) + implicitString(RESOURCE_ID, resource.getId());
+            if (resource.getProperties() != null) {
+                size += nested(RESOURCE_PROPERTIES, reserve(), struct(resource.getProperties()));
+            }
+            return size;
+        }
+
+        private int action(Action action) {
+            int size = implicitString(ACTION_NAME, action.getName());
+            if (action.getProperties() != null) {
+                size += nested(ACTION_PROPERTIES, reserve(), struct(action.getProperties()));
+            }
+            return size;
+        }
+
+        private int evaluation(Evaluation evaluation) {
+            int size = CodedOutputStream.computeStringSize(EVALUATION_ID, evaluation.getRequestId() != null ? evaluation.getRequestId() : "");
+            if (evaluation.getSubject() != null) {
+                size += nested(EVALUATION_SUBJECT, reserve(), subject(evaluation.getSubject()));
+            }
+            if (evaluation.getResource() != null) {
+                size += nested(EVALUATION_RESOURCE, reserve(), resource(evaluation.getResource()));
+            }
+            if (evaluation.getAction() != null) {
+                size += nested(EVALUATION_ACTION, reserve(), action(evaluation.getAction()));
+            }
+            if (evaluation.getContext() != null) {
+                size += nested(EVALUATION_CONTEXT, reserve(), struct(evaluation.getContext()));
+            }
+            return size;
+        }
+
+        private int struct(Map<?, ?> map) {
+            int size = 0;
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                if (entry.getKey() == null) {
+                    throw new IllegalArgumentException("Null keys are not supported in a Struct");
+                }
+                int slot = reserve();
+                size += nested(STRUCT_FIELDS, slot, CodedOutputStream.computeStringSize(ENTRY_KEY, entry.getKey().toString())
+                        + nested(ENTRY_VALUE, reserve(), value(entry.getValue())));
+            }
+            return size;
+        }
+
+        private int list(Iterable<?> values) {
+            int size = 0;
+            for (Object value : values) {
+                size += nested(LIST_VALUES, reserve(), value(value));
+            }
+            return size;
+        }
+
+        private int value(Object value) {
+            if (value == null) {
+                return CodedOutputStream.computeEnumSize(VALUE_NULL, 0);
+            }
+            if (value instanceof String s) {
+                return CodedOutputStream.computeStringSize(VALUE_STRING, s);
+            }
+            if (value instanceof Boolean b) {
+                return CodedOutputStream.computeBoolSize(VALUE_BOOL, b);
+            }
+            if (value instanceof Number n) {
+                String nonFinite = Writer.nonFinite(n);
+                return nonFinite != null ? CodedOutputStream.computeStringSize(VALUE_STRING, nonFinite)
+                        : CodedOutputStream.computeDoubleSize(VALUE_NUMBER, 0);
+            }
+            if (value instanceof Map<?, ?> m) {
+                return nested(VALUE_STRUCT, reserve(), struct(m));
+            }
+            if (value instanceof Iterable<?> it) {
+                return nested(VALUE_LIST, reserve(), list(it));
+            }
+            if (value instanceof Object[] array) {
+                return nested(VALUE_LIST, reserve(), list(Arrays.asList(array)));
+            }
+            if (value instanceof Character c) {
+                return CodedOutputStream.computeStringSize(VALUE_STRING, c.toString());
+            }
+            // Other objects follow the Jackson representation of GrpcStructMapper; the converted value is written as is
+            Value converted = GrpcStructMapper.toGrpcValue(value);
+            messages.add(converted);
+            return converted.getSerializedSize();
+        }
+
+        private int reserve() {
+            if (count == lengths.length) {
+                lengths = Arrays.copyOf(lengths, count * 2);
+            }
+            return count++;
+        }
+
+        private int nested(int field, int slot, int length) {
+            lengths[slot] = length;
+            return CodedOutputStream.computeTagSize(field) + CodedOutputStream.computeUInt32SizeNoTag(length) + length;
+        }
+
+        private static int implicitString(int field, String value) {
+            return value == null || value.isEmpty() ? 0 : CodedOutputStream.computeStringSize(field, value);
+        }
+
+        private static int optionalString(int field, String value) {
+            return value == null ? 0 : CodedOutputStream.computeStringSize(field, value);
+        }
+    }
+
+    /**
+     * Writes a request, mirroring the traversal of {@link Sizer}.
+     * Identifiers are copied from the string cache when enabled; their encoded size is the same either way.
+     */
+    private static final class Writer {
+        private final CodedOutputStream output;
+        private final int[] lengths;
+        private final Object[] messages;
+        private final Utf8Cache strings;
+        private int nextLength;
+        private int nextMessage;
+
+        Writer(CodedOutputStream output, int[] lengths, Object[] messages, Utf8Cache strings) {
+            this.output = output;
+            this.lengths = lengths;
+            this.messages = messages;
+            this.strings = strings;
+        }
+
+        void request(AZRequest request) throws IOException {
+            if (request.getAuthorizationModel() != null) {
+                nested(REQUEST_MODEL);
+                model(request.getAuthorizationModel());
+            }
+            output.writeString(REQUEST_ID, request.getRequestId() != null ? request.getRequestId() : "");
+            if (request.getSubject() != null) {
+                nested(REQUEST_SUBJECT);
+                subject(request.getSubject());
+            }
+            if (request.getResource() != null) {
+                nested(REQUEST_RESOURCE);
+                resource(request.getResource());
+            }
+            if (request.getAction() != null) {
+                nested(REQUEST_ACTION);
+                action(request.getAction());
+            }
+            if (request.getContext() != null) {
+                nested(REQUEST_CONTEXT);
+                struct(request.getContext());
+            }
+            if (request.getEvaluations() != null) {
+                for (Evaluation evaluation : request.getEvaluations()) {
+                    nested(REQUEST_EVALUATIONS);
+                    evaluation(evaluation);
+                }
+            }
+        }
+
+        private void model(AZModel model) throws IOException {
+            if (model.getZoneId() != 0) {
+                output.writeInt64(MODEL_ZONE_ID, model.getZoneId());
+            }
+            if (model.getPolicyStore() != null) {
+                nested(MODEL_POLICY_STORE);
+                implicitIdentifier(POLICY_STORE_KIND, model.getPolicyStore().getKind());
+                implicitIdentifier(POLICY_STORE_ID, model.getPolicyStore().getId());
+            }
+            if (model.getPrincipal() != null) {
+                Principal principal = model.getPrincipal();
+                nested(MODEL_PRINCIPAL);
+                implicitIdentifier(PRINCIPAL_TYPE, principal.getType());
+                implicitIdentifier(PRINCIPAL_ID, principal.getId());
+                optionalIdentifier(PRINCIPAL_SOURCE, principal.getSource());
+            }
+            Entities entities = model.getEntities();
+            if (entities instanceof RegisteredEntities) {
+                output.writeBytes(MODEL_ENTITIES, (ByteString) messages[nextMessage++]);
+            } else if (entities != null) {
+                if (nextMessage < messages.length && messages[nextMessage] instanceof AuthorizationCheck.Entities cached) {
+                    nextMessage++;
+                    output.writeMessage(MODEL_ENTITIES, cached);
+                } else {
+                    nested(MODEL_ENTITIES);
+                    entities(entities);
+                }
+            }
+        }
+
+        private void entities(Entities entities) throws IOException {
+            implicitIdentifier(ENTITIES_SCHEMA, entities.getSchema());
+            if (entities.getItems() != null) {
+                for (Map<String, Object> item : entities.getItems()) {
+                    nested(ENTITIES_ITEMS);
+                    struct(item);
+                }
+            }
+        }
+
+        private void subject(Subject subject) throws IOException {
+            implicitIdentifier(SUBJECT_TYPE, subject.getType());
+            implicitString(SUBJECT_ID, subject.getId());
+            optionalIdentifier(SUBJECT_SOURCE, subject.getSource());
+            if (subject.getProperties() != null) {
+                nested(SUBJECT_PROPERTIES);
+                struct(subject.getProperties());
+            }
+        }
+
+        private void resource(Resource resource) throws IOException {
+            implicitIdentifier(RESOURCE_TYPE, resource.getType());
+            implicitString(RESOURCE_ID, resource.getId());
+            if (resource.getProperties() != null) {
+                nested(RESOURCE_PROPERTIES);
+                struct(resource.getProperties());
+            }
+        }
+
+        private void action(Action action) throws IOException {
+            implicitIdentifier(ACTION_NAME, action.getName());
+            if (action.getProperties() != null) {
+                nested(ACTION_PROPERTIES);
+                struct(action.getProperties());
+            }
+        }
+
+        private void evaluation(Evaluation evaluation) throws IOException {
+            output.writeString(EVALUATION_ID, evaluation.getRequestId() != null ? evaluation.getRequestId() : "");
+            if (evaluation.getSubject() != null) {
+                nested(EVALUATION_SUBJECT);
+                subject(evaluation.getSubject());
+            }
+            if (evaluation.getResource() != null) {
+                nested(EVALUATION_RESOURCE);
+                resource(evaluation.getResource());
+            }
+            if (evaluation.getAction() != null) {
+                nested(EVALUATION_ACTION);
+                action(evaluation.getAction());
+            }
+            if (evaluation.getContext() != null) {
+                nested(EVALUATION_CONTEXT);
+                struct(evaluation.getContext());
+            }
+        }
+
+        private void struct(Map<?, ?> map) throws IOException {
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                nested(STRUCT_FIELDS);
+                output.writeString(ENTRY_KEY, entry.getKey().toString());
+                nested(ENTRY_VALUE);
+                value(entry.getValue());
+            }
+        }
+
+        private void list(Iterable<?> values) throws IOException {
+            for (Object value : values) {
+                nested(LIST_VALUES);
+                value(value);
+            }
+        }
+
+        private void value(Object value) throws IOException {
+            if (value == null) {
+                output.writeEnum(VALUE_NULL, 0);
+            } else if (value instanceof String s) {
+                output.writeString(VALUE_STRING, s);
+            } else if (value instanceof Boolean b) {
+                output.writeBool(VALUE_BOOL, b);
+            } else if (value instanceof Number n) {
+                String nonFinite = nonFinite(n);
+                if (nonFinite != null) {
+                    output.writeString(VALUE_STRING, nonFinite);
+                } else {
+                    output.writeDouble(VALUE_NUMBER, toDouble(n));
+                }
+            } else if (value instanceof Map<?, ?> m) {
+                nested(VALUE_STRUCT);
+                struct(m);
+            } else if (value instanceof Iterable<?> it) {
+                nested(VALUE_LIST);
+                list(it);
+            } else if (value instanceof Object[] array) {
+                nested(VALUE_LIST);
+                list(Arrays.asList(array));
+            } else if (value instanceof Character c) {
+                output.writeString(VALUE_STRING, c.toString());
+            } else {
+                ((MessageLite) messages[nextMessage++]).writeTo(output);
+            }
+        }
+
+        private void nested(int field) throws IOException {
+            output.writeTag(field, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+            output.writeUInt32NoTag(lengths[nextLength++]);
+        }
+
+        private void implicitString(int field, String value) throws IOException {
+            if (value != null && !value.isEmpty()) {
+                output.writeString(field, value);
+            }
+        }
+
+        private void optionalString(int field, String value) throws IOException {
+            if (value != null) {
+                output.writeString(field, value);
+            }
+        }
+
+        private void implicitIdentifier(int field, String value) throws IOException {
+            if (value != null && !value.isEmpty()) {
+                identifier(field, value);
+            }
+        }
+
+        private void optionalIdentifier(int field, String value) throws IOException {
+            if (value != null) {
+                identifier(field, value);
+            }
+        }
+
+        private void identifier(int field, String value) throws IOException {
+            if (strings != null) {
+                output.writeBytes(field, strings.get(value));
+            } else {
+                output.writeString(field, value);
+            }
+        }
+
+        private static double toDouble(Number number) {
+            // As in GrpcStructMapper, floats keep their shortest decimal form
+            if (number instanceof Float f) {
+                return Double.parseDouble(f.toString());
+            }
+            return number.doubleValue();
+        }
+
+        /**
+         * Gets the string a non-finite double or float is written as, as in GrpcStructMapper.
+         *
+         * @param number The number.
+         * @return "NaN", "Infinity" or "-Infinity", or null if the number is written as a number.
+         */
+        private static String nonFinite(Number number) {
+            if (number instanceof Double || number instanceof Float) {
+                double value = number.doubleValue();
+                if (!Double.isFinite(value)) {
+                    return Double.toString(value);
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Parses a response.
+     *
+     * @param input The encoded response.
+     * @return The response.
+     * @throws IOException If the response is malformed.
+     */
+    static AZResponse parseResponse(CodedInputStream input) throws IOException {
+        boolean decision = false;
+        String requestId = "";
+        ContextResponse context = null;
+        List<EvaluationResponse> evaluations = new ArrayList<>();
+        int tag;
+        while ((tag = input.readTag()) != 0) {
+            switch (WireFormat.getTagFieldNumber(tag)) {
+                case RESPONSE_DECISION -> decision = input.readBool();
+                case RESPONSE_ID -> requestId = input.readStringRequireUtf8();
+                case RESPONSE_CONTEXT -> {
+                    int limit = input.pushLimit(input.readRawVarint32());
+                    context = parseContext(input);
+                    input.popLimit(limit);
+                }
+                case RESPONSE_EVALUATIONS -> {
+                    int limit = input.pushLimit(input.readRawVarint32());
+                    evaluations.add(parseEvaluation(input));
+                    input.popLimit(limit);
+                }
+                default -> input.skipField(tag);
+            }
+        }
+        return new AZResponse(decision, requestId, context, evaluations);
+    }
+
+    private static EvaluationResponse parseEvaluation(CodedInputStream input) throws IOException {
+        boolean decision = false;
+        String requestId = "";
+        ContextResponse context = null;
+        int tag;
+        while ((tag = input.readTag()) != 0) {
+            switch (WireFormat.getTagFieldNumber(tag)) {
+                case EVALUATION_RESPONSE_DECISION -> decision = input.readBool();
+                case EVALUATION_RESPONSE_ID -> requestId = input.readStringRequireUtf8();
+                case EVALUATION_RESPONSE_CONTEXT -> {
+                    int limit = input.pushLimit(input.readRawVarint32());
+                    context = parseContext(input);
+                    input.popLimit(limit);
+                }
+                default -> input.skipField(tag);
+            }
+        }
+        return new EvaluationResponse(decision, requestId, context);
+    }
+
+    private static ContextResponse parseContext(CodedInputStream input) throws IOException {
+        String id = "";
+        ReasonResponse reasonAdmin = null;
+        ReasonResponse reasonUser = null;
+        int tag;
+        while ((tag = input.readTag()) != 0) {
+            switch (WireFormat.getTagFieldNumber(tag)) {
+                case CONTEXT_ID -> id = input.readStringRequireUtf8();
+                case CONTEXT_REASON_ADMIN, CONTEXT_REASON_USER -> {
+                    int limit = input.pushLimit(input.readRawVarint32());
+                    ReasonResponse reason = parseReason(input);
+                    input.popLimit(limit);
+                    if (WireFormat.getTagFieldNumber(tag) == CONTEXT_REASON_ADMIN) {
+                        reasonAdmin = reason;
+                    } else {
+                        reasonUser = reason;
+                    }
+                }
+                default -> input.skipField(tag);
+            }
+        }
+        return new ContextResponse(id, reasonAdmin, reasonUser);
+    }
+
+    private static ReasonResponse parseReason(CodedInputStream input) throws IOException {
+        String code = "";
+        String message = "";
+        int tag;
+        while ((tag = input.readTag()) != 0) {
+            switch (WireFormat.getTagFieldNumber(tag)) {
+                case REASON_CODE -> code = input.readStringRequireUtf8();
+                case REASON_MESSAGE -> message = input.readStringRequireUtf8();
+                default -> input.skipField(tag);
+            }
+        }
+        return new ReasonResponse(code, message);
+    }
+
+    private static final class RequestMarshaller implements MethodDescriptor.Marshaller<EncodedRequest> {
+
+        @Override
+        public InputStream stream(EncodedRequest request) {
+            return new RequestStream(request);
+        }
+
+        @Override
+        public EncodedRequest parse(InputStream stream) {
+            throw new UnsupportedOperationException("Requests are only encoded on the client");
+        }
+    }
+
+    private static final class ResponseMarshaller implements MethodDescriptor.Marshaller<AZResponse> {
+
+        @Override
+        public InputStream stream(AZResponse response) {
+            throw new UnsupportedOperationException("Responses are only parsed on the client");
+        }
+
+        @Override
+        public AZResponse parse(InputStream stream) {
+            try {
+                CodedInputStream input = CodedInputStream.newInstance(stream);
+                input.setSizeLimit(Integer.MAX_VALUE);
+                return parseResponse(input);
+            } catch (IOException e) {
+                throw Status.INTERNAL.withDescription("Invalid authorization check response").withCause(e).asRuntimeException();
+            }
+        }
+    }
+
+    /**
+     * Streams an encoded request. The transport drains it straight into its buffers;
+     * transports reading it byte by byte get a copy encoded on first read.
+     */
+    private static final class RequestStream extends InputStream implements Drainable, KnownLength {
+        private final EncodedRequest request;
+        private ByteArrayInputStream bytes;
+        private boolean drained;
+
+        RequestStream(EncodedRequest request) {
+            this.request = request;
+        }
+
+        @Override
+        public int drainTo(OutputStream target) throws IOException {
+            if (bytes != null) {
+                return (int) bytes.transferTo(target);
+            }
+            if (drained) {
+                return 0;
+            }
+            drained = true;
+            CodedOutputStream output = CodedOutputStream.newInstance(target, Math.min(Math.max(request.size(), 1), MAX_BUFFER_SIZE));
+            request.writeTo(output);
+            output.flush();
+            return request.size();
+        }
+
+        @Override
+        public int available() {
+            if (bytes != null) {
+                return bytes.available();
+            }
+            return drained ? 0 : request.size();
+        }
+
+        @Override
+        public int read() {
+            return toBytes().read();
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            return toBytes().read(buffer, offset, length);
+        }
+
+        private ByteArrayInputStream toBytes() {
+            if (bytes == null) {
+                bytes = new ByteArrayInputStream(drained ? new byte[0] : request.toByteArray());
+                drained = true;
+            }
+            return bytes;
+        }
+    }
+}
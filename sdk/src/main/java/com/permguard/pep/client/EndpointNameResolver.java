@@ -0,0 +1,202 @@
+/**
+ *   Copyright 2024 Nitro Agility S.r.l.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+  */
+
+package com.permguard.pep.client;
+
+import io.grpc.EquivalentAddressGroup;
+import io.grpc.NameResolver;
+import io.grpc.Status;
+import io.grpc.StatusOr;
+import io.grpc.SynchronizationContext;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolves the PDP endpoints configured in {@link com.permguard.pep.config.AZConfig}, either a static list of
+ * {@code host:port} entries or a file with one entry per line that is re-read whenever it changes.
+ * Each endpoint becomes its own address group, so the channel's load balancing policy spreads calls across them.
+ */
+class EndpointNameResolver extends NameResolver {
+    static final String SCHEME = "permguard";
+
+    private final String authority;
+    private final List<String> endpoints;
+    private final Path endpointsFile;
+    private final Duration refreshInterval;
+    private final int defaultPort;
+    private final SynchronizationContext syncContext;
+    private final ScheduledExecutorService scheduler;
+    private final Executor offloadExecutor;
+    private Listener2 listener;
+    private ScheduledFuture<?> watcher;
+    private FileTime lastModified;
+    private boolean resolving;
+    private boolean shutdown;
+
+    private EndpointNameResolver(String authority, List<String> endpoints, Path endpointsFile, Duration refreshInterval,
+                                 int defaultPort, Args args) {
+        this.authority = authority;
+        this.endpoints = endpoints;
+        this.endpointsFile = endpointsFile;
+        this.refreshInterval = refreshInterval;
+        this.defaultPort = defaultPort;
+        this.syncContext = args.getSynchronizationContext();
+        this.scheduler = args.getScheduledExecutorService();
+        this.offloadExecutor = args.getOffloadExecutor() != null ? args.getOffloadExecutor() : Runnable::run;
+    }
+
+    /**
+     * Creates a factory producing resolvers for the given endpoints.
+     *
+     * @param authority       The authority presented to the PDP, e.g. for TLS host name verification.
+     * @param endpoints       The static endpoints, or null.
+     * @param endpointsFile   The file listing the endpoints, or null.
+     * @param refreshInterval How often the endpoints file is checked for changes.
+     * @param defaultPort     The port used for entries without one.
+     * @return A name resolver factory.
+     */
+    static NameResolver.Factory factory(String authority, List<String> endpoints, Path endpointsFile,
+                                        Duration refreshInterval, int defaultPort) {
+        return new NameResolver.Factory() {
+            @Override
+            public NameResolver newNameResolver(URI targetUri, Args args) {
+                if (!SCHEME.equals(targetUri.getScheme())) {
+                    return null;
+                }
+                return new EndpointNameResolver(authority, endpoints, endpointsFile, refreshInterval, defaultPort, args);
+            }
+
+            @Override
+            public String getDefaultScheme() {
+                return SCHEME;
+            }
+        };
+    }
+
+    @Override
+    public String getServiceAuthority() {
+        return authority;
+    }
+
+    @Override
+    public void start(Listener2 listener) {
+        this.listener = listener;
+        if (endpointsFile != null && refreshInterval != null && !refreshInterval.isZero()) {
+            long period = refreshInterval.toMillis();
+            watcher = scheduler.scheduleWithFixedDelay(this::checkFile, period, period, TimeUnit.MILLISECONDS);
+        }
+        resolve();
+    }
+
+    @Override
+    public void refresh() {
+        resolve();
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown = true;
+        if (watcher != null) {
+            watcher.cancel(false);
+        }
+    }
+
+    private void checkFile() {
+        try {
+            FileTime modified = Files.getLastModifiedTime(endpointsFile);
+            if (!modified.equals(lastModified)) {
+                syncContext.execute(this::resolve);
+            }
+        } catch (IOException e) {
+            // Keep the last known endpoints until the file is readable again
+        }
+    }
+
+    private void resolve() {
+        if (resolving || shutdown) {
+            return;
+        }
+        resolving = true;
+        offloadExecutor.execute(() -> {
+            StatusOr<List<EquivalentAddressGroup>> addresses;
+            FileTime modified = null;
+            try {
+                List<String> entries = endpoints;
+                if (endpointsFile != null) {
+                    modified = Files.getLastModifiedTime(endpointsFile);
+                    entries = readEndpoints(endpointsFile);
+                }
+                addresses = StatusOr.fromValue(toAddressGroups(entries));
+            } catch (IOException | RuntimeException e) {
+                addresses = StatusOr.fromStatus(Status.UNAVAILABLE
+                        .withDescription("Unable to resolve the PDP endpoints").withCause(e));
+            }
+            StatusOr<List<EquivalentAddressGroup>> result = addresses;
+            FileTime version = modified;
+            syncContext.execute(() -> {
+                resolving = false;
+                if (shutdown) {
+                    return;
+                }
+                if (result.hasValue()) {
+                    lastModified = version;
+                }
+                listener.onResult2(ResolutionResult.newBuilder().setAddressesOrError(result).build());
+            });
+        });
+    }
+
+    private static List<String> readEndpoints(Path file) throws IOException {
+        List<String> entries = new ArrayList<>();
+        for (String line : Files.readAllLines(file)) {
+            String entry = line.trim();
+            if (!entry.isEmpty() && !entry.startsWith("#")) {
+                entries.add(entry);
+            }
+        }
+        return entries;
+    }
+
+    private List<EquivalentAddressGroup> toAddressGroups(List<String> entries) {
+        if (entries == null || entries.isEmpty()) {
+            throw new IllegalArgumentException("No PDP endpoint configured");
+        }
+        List<EquivalentAddressGroup> groups = new ArrayList<>(entries.size());
+        for (String entry : entries) {
+            URI uri = URI.create("//" + entry);
+            if (uri.getHost() == null) {
+                throw new IllegalArgumentException("Invalid PDP endpoint: " + entry);
+            }
+            int port = uri.getPort() != -1 ? uri.getPort() : defaultPort;
+            groups.add(new EquivalentAddressGroup(new InetSocketAddress(uri.getHost(), port)));
+        }
+        return groups;
+    }
+}
@@ -0,0 +1,70 @@
+/**
+ *   Copyright 2024 Nitro Agility S.r.l.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+  */
+
+package com.permguard.pep.client;
+
+import com.permguard.pep.internal.proto.AuthorizationCheck;
+import com.permguard.pep.model.request.Entities;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+import java.util.function.Function;
+
+/**
+ * Memo of encoded entity blocks keyed by {@link Entities} instance, for services that reuse the same entity set
+ * across checks. Entries are dropped when their instance is garbage collected.
+ * Only a replaced schema or item list, or a changed item count, is detected: items must not be modified in place.
+ */
+class EntitiesCache {
+    private final Map<Entities, Entry> entries = new WeakHashMap<>();
+
+    /**
+     * Gets the encoded form of an entity set, encoding it on a miss.
+     *
+     * @param entities The entity set.
+     * @param encoding Encodes the entity set.
+     * @return The encoded entity set.
+     */
+    AuthorizationCheck.Entities get(Entities entities, Function<Entities, AuthorizationCheck.Entities> encoding) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(entities);
+        }
+        if (entry != null && entry.matches(entities)) {
+            return entry.encoded;
+        }
+        AuthorizationCheck.Entities encoded = encoding.apply(entities);
+        synchronized (entries) {
+            entries.put(entities, new Entry(entities.getSchema(), entities.getItems(), itemCount(entities.getItems()), encoded));
+        }
+        return encoded;
+    }
+
+    private static int itemCount(List<?> items) {
+        return items != null ? items.size() : 0;
+    }
+
+    private record Entry(String schema, List<Map<String, Object>> items, int size, AuthorizationCheck.Entities encoded) {
+
+        boolean matches(Entities entities) {
+            return Objects.equals(schema, entities.getSchema()) && items == entities.getItems() && size == itemCount(entities.getItems());
+        }
+    }
+}
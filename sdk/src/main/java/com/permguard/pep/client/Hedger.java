@@ -0,0 +1,225 @@
+/**
+ *   Copyright 2024 Nitro Agility S.r.l.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+  */
+
+package com.permguard.pep.client;
+
+import com.permguard.pep.config.HedgingConfig;
+import com.permguard.pep.metrics.AZMetrics;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Sends a duplicate of a call that has not answered within a percentile of recently observed latencies,
+ * completing with whichever attempt answers first and cancelling the other.
+ * Hedging is safe because {@code V1PDPService/AuthorizationCheck} is idempotent.
+ */
+class Hedger {
+    private static final double MAX_TOKENS = 10.0;
+    private static final int RECOMPUTE_EVERY = 100;
+
+    private final double percentile;
+    private final long minDelayNanos;
+    private final long maxDelayNanos;
+    private final double tokenRatio;
+    private final long[] samples;
+    private final ScheduledExecutorService scheduler;
+    private final AZMetrics metrics;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder hedges = new LongAdder();
+    private final LongAdder hedgeWins = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+    private int sampleCount;
+    private int sampleIndex;
+    private double tokens = MAX_TOKENS;
+    private volatile long delayNanos;
+
+    /**
+     * Constructs a hedger with the given configuration.
+     *
+     * @param config  The hedging configuration.
+     * @param metrics The metrics of the client.
+     */
+    Hedger(HedgingConfig config, AZMetrics metrics) {
+        this.metrics = metrics;
+        this.percentile = Math.min(100.0, Math.max(0.0, config.getPercentile()));
+        this.minDelayNanos = config.getMinDelay() != null ? config.getMinDelay().toNanos() : 0;
+        this.maxDelayNanos = config.getMaxDelay() != null ? config.getMaxDelay().toNanos() : Long.MAX_VALUE;
+        this.tokenRatio = config.getMaxHedgeRatio();
+        this.samples = new long[Math.max(RECOMPUTE_EVERY, config.getSampleSize())];
+        this.delayNanos = maxDelayNanos;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "permguard-hedger");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Performs a call, hedging it when it is slow.
+     *
+     * @param attempt Starts one attempt of the call; cancelling the given token must cancel that attempt.
+     * @param caller  The future handed to the caller, whose cancellation cancels every attempt, or null.
+     * @param <T>     The response type.
+     * @return A future completed with the first successful answer, or the failure of the last attempt.
+     */
+    <T> CompletableFuture<T> invoke(Function<CompletableFuture<?>, CompletableFuture<T>> attempt, CompletableFuture<?> caller) {
+        calls.increment();
+        synchronized (this) {
+            tokens = Math.min(MAX_TOKENS, tokens + tokenRatio);
+        }
+        HedgedCall<T> call = new HedgedCall<>(attempt);
+        if (caller != null) {
+            caller.whenComplete((response, error) -> {
+                if (caller.isCancelled()) {
+                    call.result.cancel(false);
+                }
+            });
+        }
+        call.start();
+        return call.result;
+    }
+
+    /**
+     * Takes a snapshot of the hedging counters.
+     *
+     * @return The hedging statistics.
+     */
+    HedgingStats stats() {
+        return new HedgingStats(calls.sum(), hedges.sum(), hedgeWins.sum(), throttled.sum(), delayNanos);
+    }
+
+    /**
+     * Stops the hedging timer.
+     */
+    void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private synchronized boolean tryAcquireToken() {
+        if (tokens < 1.0) {
+            return false;
+        }
+        tokens -= 1.0;
+        return true;
+    }
+
+    private void recordLatency(long nanos) {
+        long[] snapshot = null;
+        synchronized (samples) {
+            samples[sampleIndex] = nanos;
+            sampleIndex = (sampleIndex + 1) % samples.length;
+            sampleCount++;
+            if (sampleCount % RECOMPUTE_EVERY == 0) {
+                snapshot = Arrays.copyOf(samples, Math.min(sampleCount, samples.length));
+            }
+        }
+        if (snapshot != null) {
+            Arrays.sort(snapshot);
+            int rank = (int) Math.ceil(percentile / 100.0 * snapshot.length) - 1;
+            long value = snapshot[Math.max(0, Math.min(snapshot.length - 1, rank))];
+            delayNanos = Math.max(minDelayNanos, Math.min(maxDelayNanos, value));
+        }
+    }
+
+    private class HedgedCall<T> {
+        private final Function<CompletableFuture<?>, CompletableFuture<T>> attempt;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private final CompletableFuture<Void> primaryToken = new CompletableFuture<>();
+        private final CompletableFuture<Void> hedgeToken = new CompletableFuture<>();
+        private ScheduledFuture<?> timer;
+        private boolean hedged;
+        private int pending;
+
+        private HedgedCall(Function<CompletableFuture<?>, CompletableFuture<T>> attempt) {
+            this.attempt = attempt;
+        }
+
+        private void start() {
+            result.whenComplete((response, error) -> {
+                // The loser, or every attempt when the caller gave up, is cancelled
+                primaryToken.cancel(false);
+                hedgeToken.cancel(false);
+                synchronized (this) {
+                    if (timer != null) {
+                        timer.cancel(false);
+                    }
+                }
+            });
+            synchronized (this) {
+                pending++;
+                timer = scheduler.schedule(this::hedge, delayNanos, TimeUnit.NANOSECONDS);
+            }
+            launch(primaryToken, false);
+        }
+
+        private void hedge() {
+            synchronized (this) {
+                if (result.isDone() || hedged || pending == 0) {
+                    return;
+                }
+                if (!tryAcquireToken()) {
+                    throttled.increment();
+                    return;
+                }
+                hedged = true;
+                pending++;
+            }
+            hedges.increment();
+            metrics.recordHedge();
+            launch(hedgeToken, true);
+        }
+
+        private void launch(CompletableFuture<Void> token, boolean isHedge) {
+            long start = System.nanoTime();
+            CompletableFuture<T> future;
+            try {
+                future = attempt.apply(token);
+            } catch (RuntimeException e) {
+                future = CompletableFuture.failedFuture(e);
+            }
+            future.whenComplete((response, error) -> {
+                if (error == null) {
+                    recordLatency(System.nanoTime() - start);
+                    if (result.complete(response) && isHedge) {
+                        hedgeWins.increment();
+                    }
+                    return;
+                }
+                boolean last;
+                synchronized (this) {
+                    pending--;
+                    // Without a hedge in flight, the failure is final and no hedge will follow
+                    last = pending == 0;
+                    if (last && timer != null) {
+                        timer.cancel(false);
+                    }
+                }
+                if (last) {
+                    result.completeExceptionally(error);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/**
+ *   Copyright 2024 Nitro Agility S.r.l.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+  */
+
+package com.permguard.pep.client;
+
+/**
+ * Point-in-time statistics of hedged authorization checks.
+ */
+public class HedgingStats {
+    private final long callCount;
+    private final long hedgeCount;
+    private final long hedgeWinCount;
+    private final long throttledCount;
+    private final long hedgeDelayNanos;
+
+    /**
+     * Constructor with parameters.
+     *
+     * @param callCount       The number of hedgeable calls.
+     * @param hedgeCount      The number of duplicate calls sent.
+     * @param hedgeWinCount   The number of calls answered first by the duplicate.
+     * @param throttledCount  The number of duplicate calls withheld by the hedge ratio cap.
+     * @param hedgeDelayNanos The current hedging delay in nanoseconds.
+     */
+    public HedgingStats(long callCount, long hedgeCount, long hedgeWinCount, long throttledCount, long hedgeDelayNanos) {
+        this.callCount = callCount;
+        this.hedgeCount = hedgeCount;
+        this.hedgeWinCount = hedgeWinCount;
+        this.throttledCount = throttledCount;
+        this.hedgeDelayNanos = hedgeDelayNanos;
+    }
+
+    /**
+     * Gets the number of hedgeable calls.
+     *
+     * @return The call count.
+     */
+    public long getCallCount() {
+        return callCount;
+    }
+
+    /**
+     * Gets the number of duplicate calls sent.
+     *
+     * @return The hedge count.
+     */
+    public long getHedgeCount() {
+        return hedgeCount;
+    }
+
+    /**
+     * Gets the number of calls answered first by the duplicate.
+     *
+     * @return The hedge win count.
+     */
+    public long getHedgeWinCount() {
+        return hedgeWinCount;
+    }
+
+    /**
+     * Gets the number of duplicate calls withheld by the hedge ratio cap.
+     *
+     * @return The throttled count.
+     */
+    public long getThrottledCount() {
+        return throttledCount;
+    }
+
+    /**
+     * Gets the current hedging delay.
+     *
+     * @return The delay in nanoseconds.
+     */
+    public long getHedgeDelayNanos() {
+        return hedgeDelayNanos;
+    }
+}
@@ -0,0 +1,133 @@
+/**
+ *   Copyright 2024 Nitro Agility S.r.l.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+  */
+
+package com.permguard.pep.client;
+
+import com.permguard.pep.internal.proto.AuthorizationCheck;
+import com.permguard.pep.model.response.AZResponse;
+import com.permguard.pep.model.response.ContextResponse;
+import com.permguard.pep.model.response.EvaluationResponse;
+
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * An {@link AZResponse} backed by the gRPC response. The decision is read directly from the protobuf message,
+ * and the request ID, the context and the evaluations are only converted on first access, so a caller reading
+ * only the decision does not materialize them. Until the evaluations are read or set, {@link #decisions()} and
+ * {@link #allowedCount()} are computed from the protobuf message without creating evaluation objects.
+ * Values passed to the setters replace the converted ones.
+ */
+class LazyAZResponse extends AZResponse {
+    private final AuthorizationCheck.AuthorizationCheckResponse response;
+    private final Mapper mapper;
+    private volatile boolean requestIdMapped;
+    private volatile boolean contextMapped;
+    private volatile boolean evaluationsMapped;
+
+    /**
+     * Constructs a response backed by a gRPC response.
+     *
+     * @param response The gRPC response.
+     * @param mapper   The mapper converting the context and the evaluations.
+     */
+    LazyAZResponse(AuthorizationCheck.AuthorizationCheckResponse response, Mapper mapper) {
+        super.setDecision(response.getDecision());
+        this.response = response;
+        this.mapper = mapper;
+    }
+
+    @Override
+    public String getRequestId() {
+        if (!requestIdMapped) {
+            super.setRequestId(response.hasRequestID() ? response.getRequestID() : "");
+            requestIdMapped = true;
+        }
+        return super.getRequestId();
+    }
+
+    @Override
+    public void setRequestId(String requestId) {
+        super.setRequestId(requestId);
+        requestIdMapped = true;
+    }
+
+    @Override
+    public ContextResponse getContext() {
+        if (!contextMapped) {
+            super.setContext(response.hasContext() ? mapper.mapContextResponse(response.getContext()) : null);
+            contextMapped = true;
+        }
+        return super.getContext();
+    }
+
+    @Override
+    public void setContext(ContextResponse context) {
+        super.setContext(context);
+        contextMapped = true;
+    }
+
+    @Override
+    public List<EvaluationResponse> getEvaluations() {
+        if (!evaluationsMapped) {
+            super.setEvaluations(response.getEvaluationsList().stream().map(mapper::mapEvaluationResponse).toList());
+            evaluationsMapped = true;
+        }
+        return super.getEvaluations();
+    }
+
+    @Override
+    public void setEvaluations(List<EvaluationResponse> evaluations) {
+        super.setEvaluations(evaluations);
+        evaluationsMapped = true;
+    }
+
+    @Override
+    public BitSet decisions() {
+        if (evaluationsMapped) {
+            return super.decisions();
+        }
+        int count = response.getEvaluationsCount();
+        BitSet decisions = new BitSet(count);
+        for (int i = 0; i < count; i++) {
+            if (response.getEvaluations(i).getDecision()) {
+                decisions.set(i);
+            }
+        }
+        return decisions;
+    }
+
+    @Override
+    public int allowedCount() {
+        if (evaluationsMapped) {
+            return super.allowedCount();
+        }
+        int allowed = 0;
+        for (int i = 0; i < response.getEvaluationsCount(); i++) {
+            if (response.getEvaluations(i).getDecision()) {
+                allowed++;
+            }
+        }
+        return allowed;
+    }
+
+    @Override
+    public int evaluationCount() {
+        return evaluationsMapped ? super.evaluationCount() : response.getEvaluationsCount();
+    }
+}
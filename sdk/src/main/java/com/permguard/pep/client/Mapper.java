@@ -1,5 +1,7 @@
 package com.permguard.pep.client;
 
+import com.google.protobuf.ByteString;
+import com.google.protobuf.UnknownFieldSet;
 import com.permguard.pep.internal.proto.AuthorizationCheck;
 import com.permguard.pep.model.request.*;
 import com.permguard.pep.model.response.AZResponse;
@@ -8,7 +10,40 @@ import com.permguard.pep.model.response.EvaluationResponse;
 import com.permguard.pep.model.response.ReasonResponse;
 import com.permguard.pep.utils.GrpcStructMapper;
 
+import java.util.Map;
+
 class Mapper {
+    private final ModelCache models;
+    private final EntitiesCache entitiesCache;
+    private final Utf8Cache strings;
+
+    /**
+     * Constructs a mapper that encodes entity items and identifier strings on every check.
+     */
+    Mapper() {
+        this(false);
+    }
+
+    /**
+     * Constructs a mapper that encodes identifier strings on every check.
+     *
+     * @param cacheEntities True to reuse the encoding of an {@link Entities} instance across checks.
+     */
+    Mapper(boolean cacheEntities) {
+        this(cacheEntities, 0);
+    }
+
+    /**
+     * Constructs a mapper.
+     *
+     * @param cacheEntities   True to reuse the encoding of an {@link Entities} instance across checks.
+     * @param stringCacheSize The maximum number of identifier strings whose encoding is cached, or 0 to disable the cache.
+     */
+    Mapper(boolean cacheEntities, int stringCacheSize) {
+        this.models = new ModelCache(cacheEntities);
+        this.entitiesCache = cacheEntities ? new EntitiesCache() : null;
+        this.strings = stringCacheSize > 0 ? new Utf8Cache(stringCacheSize) : null;
+    }
 
     /**
      * Converts an AZRequest into a gRPC-compatible AuthorizationCheckRequest.
@@ -18,8 +53,11 @@ class Mapper {
      */
     AuthorizationCheck.AuthorizationCheckRequest mapAuthorizationCheckRequest(AZRequest request) {
         AuthorizationCheck.AuthorizationCheckRequest.Builder requestBuilder = AuthorizationCheck.AuthorizationCheckRequest.newBuilder()
-                .setRequestID(request.getRequestId() != null ? request.getRequestId() : "")
-                .setAuthorizationModel(mapAuthorizationModel(request.getAuthorizationModel()));
+                .setRequestID(request.getRequestId() != null ? request.getRequestId() : "");
+
+        if (request.getAuthorizationModel() != null) {
+            requestBuilder.setAuthorizationModel(mapModel(request.getAuthorizationModel()));
+        }
 
         if (request.getSubject() != null) {
             requestBuilder.setSubject(mapSubject(request.getSubject()));
@@ -42,6 +80,55 @@ class Mapper {
         return requestBuilder.build();
     }
 
+    /**
+     * Converts an AZModel into a gRPC-compatible AuthorizationModelRequest, reusing a previous mapping of the same model.
+     *
+     * @param model The AZModel.
+     * @return A gRPC-compatible AuthorizationModelRequest.
+     */
+    AuthorizationCheck.AuthorizationModelRequest mapModel(AZModel model) {
+        return models.get(model, this::mapAuthorizationModel);
+    }
+
+    /**
+     * Serializes entities into an Entities message.
+     *
+     * @param entities The entities.
+     * @return The serialized Entities message.
+     */
+    ByteString serializeEntities(Entities entities) {
+        return encodeEntities(entities).toByteString();
+    }
+
+    /**
+     * Gets the cached encoding of entities, if entity caching is enabled.
+     *
+     * @param entities The entities.
+     * @return The encoded entities, or null if entity caching is disabled.
+     */
+    AuthorizationCheck.Entities cachedEntities(Entities entities) {
+        return entitiesCache != null ? entitiesCache.get(entities, this::encodeEntities) : null;
+    }
+
+    /**
+     * Gets the UTF-8 encoding of an identifier string, from the string cache if enabled.
+     *
+     * @param value The identifier.
+     * @return The encoded identifier.
+     */
+    ByteString utf8(String value) {
+        return strings != null ? strings.get(value) : ByteString.copyFromUtf8(value);
+    }
+
+    /**
+     * Gets the cache of encoded identifier strings.
+     *
+     * @return The string cache, or null if it is disabled.
+     */
+    Utf8Cache strings() {
+        return strings;
+    }
+
     /**
      * Converts an AuthorizationCheckResponse into an AZResponse.
      *
@@ -49,77 +136,132 @@ class Mapper {
      * @return An AZResponse instance.
      */
     AZResponse mapAuthResponsePayload(AuthorizationCheck.AuthorizationCheckResponse response) {
-        return new AZResponse(
-                response.getDecision(),
-                response.hasRequestID() ? response.getRequestID() : "",
-                response.hasContext() ? mapContextResponse(response.getContext()) : null,
-                response.getEvaluationsList().stream().map(this::mapEvaluationResponse).toList()
-        );
+        // The context and the evaluations are converted when first read; see LazyAZResponse
+        return new LazyAZResponse(response, this);
     }
 
     /** MAPPING HELPERS **/
 
     private AuthorizationCheck.AuthorizationModelRequest mapAuthorizationModel(AZModel model) {
-        return AuthorizationCheck.AuthorizationModelRequest.newBuilder()
-                .setZoneID(model.getZoneId())
-                .setPolicyStore(mapPolicyStore(model.getPolicyStore()))
-                .setPrincipal(mapPrincipal(model.getPrincipal()))
-                .setEntities(mapEntities(model.getEntities()))
-                .build();
+        AuthorizationCheck.AuthorizationModelRequest.Builder builder = AuthorizationCheck.AuthorizationModelRequest.newBuilder()
+                .setZoneID(model.getZoneId());
+        if (model.getPolicyStore() != null) {
+            builder.setPolicyStore(mapPolicyStore(model.getPolicyStore()));
+        }
+        if (model.getPrincipal() != null) {
+            builder.setPrincipal(mapPrincipal(model.getPrincipal()));
+        }
+        if (model.getEntities() instanceof RegisteredEntities registered) {
+            // The serialized Entities message is written as field 4 verbatim; unknown fields follow the known ones,
+            // so the request is encoded exactly as if the entities had been set
+            builder.setUnknownFields(UnknownFieldSet.newBuilder()
+                    .addField(AuthorizationCheck.AuthorizationModelRequest.ENTITIES_FIELD_NUMBER,
+                            UnknownFieldSet.Field.newBuilder().addLengthDelimited(registered.payload()).build())
+                    .build());
+        } else if (model.getEntities() != null) {
+            builder.setEntities(mapEntities(model.getEntities()));
+        }
+        return builder.build();
     }
 
     private AuthorizationCheck.PolicyStore mapPolicyStore(PolicyStore store) {
-        return AuthorizationCheck.PolicyStore.newBuilder()
-                .setKind(store.getKind())
-                .setID(store.getId())
-                .build();
+        AuthorizationCheck.PolicyStore.Builder builder = AuthorizationCheck.PolicyStore.newBuilder();
+        if (store.getKind() != null) {
+            builder.setKindBytes(utf8(store.getKind()));
+        }
+        if (store.getId() != null) {
+            builder.setIDBytes(utf8(store.getId()));
+        }
+        return builder.build();
     }
 
     private AuthorizationCheck.Principal mapPrincipal(Principal principal) {
-        return AuthorizationCheck.Principal.newBuilder()
-                .setType(principal.getType())
-                .setID(principal.getId())
-                .setSource(principal.getSource())
-                .build();
+        AuthorizationCheck.Principal.Builder builder = AuthorizationCheck.Principal.newBuilder();
+        if (principal.getType() != null) {
+            builder.setTypeBytes(utf8(principal.getType()));
+        }
+        if (principal.getId() != null) {
+            builder.setIDBytes(utf8(principal.getId()));
+        }
+        if (principal.getSource() != null) {
+            builder.setSourceBytes(utf8(principal.getSource()));
+        }
+        return builder.build();
     }
 
     private AuthorizationCheck.Entities mapEntities(Entities entities) {
-        return AuthorizationCheck.Entities.newBuilder()
-                .setSchema(entities.getSchema())
-                .build();
+        return entitiesCache != null ? entitiesCache.get(entities, this::encodeEntities) : encodeEntities(entities);
+    }
+
+    private AuthorizationCheck.Entities encodeEntities(Entities entities) {
+        AuthorizationCheck.Entities.Builder builder = AuthorizationCheck.Entities.newBuilder();
+        if (entities.getSchema() != null) {
+            builder.setSchemaBytes(utf8(entities.getSchema()));
+        }
+        if (entities.getItems() != null) {
+            // Each item is converted straight into a Struct, without an intermediate JSON document
+            for (Map<String, Object> item : entities.getItems()) {
+                builder.addItems(GrpcStructMapper.toGrpcStruct(item));
+            }
+        }
+        return builder.build();
     }
 
     private AuthorizationCheck.Subject mapSubject(Subject subject) {
-        return AuthorizationCheck.Subject.newBuilder()
-                .setType(subject.getType())
-                .setID(subject.getId())
-                .setSource(subject.getSource())
-                .setProperties(GrpcStructMapper.toGrpcStruct(subject.getProperties()))
-                .build();
+        AuthorizationCheck.Subject.Builder builder = AuthorizationCheck.Subject.newBuilder();
+        if (subject.getType() != null) {
+            builder.setTypeBytes(utf8(subject.getType()));
+        }
+        if (subject.getId() != null) {
+            builder.setID(subject.getId());
+        }
+        if (subject.getSource() != null) {
+            builder.setSourceBytes(utf8(subject.getSource()));
+        }
+        if (subject.getProperties() != null) {
+            builder.setProperties(GrpcStructMapper.toGrpcStruct(subject.getProperties()));
+        }
+        return builder.build();
     }
 
     private AuthorizationCheck.Resource mapResource(Resource resource) {
-        return AuthorizationCheck.Resource.newBuilder()
-                .setType(resource.getType())
-                .setID(resource.getId())
-                .setProperties(GrpcStructMapper.toGrpcStruct(resource.getProperties()))
-                .build();
+        AuthorizationCheck.Resource.Builder builder = AuthorizationCheck.Resource.newBuilder();
+        if (resource.getType() != null) {
+            builder.setTypeBytes(utf8(resource.getType()));
+        }
+        if (resource.getId() != null) {
+            builder.setID(resource.getId());
+        }
+        if (resource.getProperties() != null) {
+            builder.setProperties(GrpcStructMapper.toGrpcStruct(resource.getProperties()));
+        }
+        return builder.build();
     }
 
     private AuthorizationCheck.Action mapAction(Action action) {
-        return AuthorizationCheck.Action.newBuilder()
-                .setName(action.getName())
-                .setProperties(GrpcStructMapper.toGrpcStruct(action.getProperties()))
-                .build();
+        AuthorizationCheck.Action.Builder builder = AuthorizationCheck.Action.newBuilder();
+        if (action.getName() != null) {
+            builder.setNameBytes(utf8(action.getName()));
+        }
+        if (action.getProperties() != null) {
+            builder.setProperties(GrpcStructMapper.toGrpcStruct(action.getProperties()));
+        }
+        return builder.build();
     }
 
     private AuthorizationCheck.EvaluationRequest mapEvaluation(Evaluation evaluation) {
         AuthorizationCheck.EvaluationRequest.Builder builder = AuthorizationCheck.EvaluationRequest.newBuilder()
-                .setRequestID(evaluation.getRequestId() != null ? evaluation.getRequestId() : "")
-                .setSubject(mapSubject(evaluation.getSubject()))
-                .setResource(mapResource(evaluation.getResource()))
-                .setAction(mapAction(evaluation.getAction()));
+                .setRequestID(evaluation.getRequestId() != null ? evaluation.getRequestId() : "");
 
+        if (evaluation.getSubject() != null) {
+            builder.setSubject(mapSubject(evaluation.getSubject()));
+        }
+        if (evaluation.getResource() != null) {
+            builder.setResource(mapResource(evaluation.getResource()));
+        }
+        if (evaluation.getAction() != null) {
+            builder.setAction(mapAction(evaluation.getAction()));
+        }
         if (evaluation.getContext() != null) {
             builder.setContext(GrpcStructMapper.toGrpcStruct(evaluation.getContext()));
         }
@@ -127,7 +269,7 @@ class Mapper {
         return builder.build();
     }
 
-    private EvaluationResponse mapEvaluationResponse(AuthorizationCheck.EvaluationResponse response) {
+    EvaluationResponse mapEvaluationResponse(AuthorizationCheck.EvaluationResponse response) {
         return new EvaluationResponse(
                 response.getDecision(),
                 response.hasRequestID() ? response.getRequestID() : "",
@@ -137,7 +279,7 @@ class Mapper {
 
 
 
-    private ContextResponse mapContextResponse(AuthorizationCheck.ContextResponse grpcContext) {
+    ContextResponse mapContextResponse(AuthorizationCheck.ContextResponse grpcContext) {
         return new ContextResponse(
                 grpcContext.getID(),
                 grpcContext.hasReasonAdmin() ? mapReasonResponse(grpcContext.getReasonAdmin()) : null,
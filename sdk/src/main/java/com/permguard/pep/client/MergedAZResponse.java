@@ -0,0 +1,103 @@
+/**
+ *   Copyright 2024 Nitro Agility S.r.l.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+  */
+
+package com.permguard.pep.client;
+
+import com.permguard.pep.model.response.AZResponse;
+import com.permguard.pep.model.response.EvaluationResponse;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * The response of a bulk check, assembled from the responses of its chunks in request order.
+ * The decision is allowed only if there is at least one chunk and every chunk is allowed. The evaluation list is concatenated on first access,
+ * while {@link #decisions()} and {@link #allowedCount()} combine the chunk results without materializing it.
+ */
+class MergedAZResponse extends AZResponse {
+    private final List<AZResponse> chunks;
+    private final int chunkSize;
+    private volatile boolean evaluationsMerged;
+
+    /**
+     * Constructs a merged response.
+     *
+     * @param chunks    The chunk responses, in request order.
+     * @param chunkSize The number of evaluations sent in each chunk but the last.
+     */
+    MergedAZResponse(List<AZResponse> chunks, int chunkSize) {
+        super.setDecision(!chunks.isEmpty() && chunks.stream().allMatch(AZResponse::isDecision));
+        super.setRequestId("");
+        this.chunks = chunks;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public List<EvaluationResponse> getEvaluations() {
+        if (!evaluationsMerged) {
+            List<EvaluationResponse> evaluations = new ArrayList<>(evaluationCount());
+            for (AZResponse chunk : chunks) {
+                if (chunk.getEvaluations() != null) {
+                    evaluations.addAll(chunk.getEvaluations());
+                }
+            }
+            super.setEvaluations(evaluations);
+            evaluationsMerged = true;
+        }
+        return super.getEvaluations();
+    }
+
+    @Override
+    public void setEvaluations(List<EvaluationResponse> evaluations) {
+        super.setEvaluations(evaluations);
+        evaluationsMerged = true;
+    }
+
+    @Override
+    public BitSet decisions() {
+        if (evaluationsMerged) {
+            return super.decisions();
+        }
+        BitSet decisions = new BitSet();
+        for (int i = 0; i < chunks.size(); i++) {
+            BitSet chunk = chunks.get(i).decisions();
+            int offset = i * chunkSize;
+            for (int bit = chunk.nextSetBit(0); bit >= 0; bit = chunk.nextSetBit(bit + 1)) {
+                decisions.set(offset + bit);
+            }
+        }
+        return decisions;
+    }
+
+    @Override
+    public int allowedCount() {
+        if (evaluationsMerged) {
+            return super.allowedCount();
+        }
+        return chunks.stream().mapToInt(AZResponse::allowedCount).sum();
+    }
+
+    @Override
+    public int evaluationCount() {
+        if (evaluationsMerged) {
+            return super.evaluationCount();
+        }
+        return chunks.stream().mapToInt(AZResponse::evaluationCount).sum();
+    }
+}
@@ -0,0 +1,172 @@
+/**
+ *   Copyright 2024 Nitro Agility S.r.l.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+  */
+
+package com.permguard.pep.client;
+
+import com.permguard.pep.internal.proto.AuthorizationCheck;
+import com.permguard.pep.model.request.AZModel;
+import com.permguard.pep.model.request.Entities;
+import com.permguard.pep.model.request.PolicyStore;
+import com.permguard.pep.model.request.Principal;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Bounded LRU memo of mapped authorization models, keyed by the model content that the mapping reads.
+ * The model most recently looked up is also kept by identity, so that a service reusing the same {@link AZModel}
+ * instance skips building the content key; since models are mutable, that fast path still compares the content.
+ * Entity items are too large to compare, so models carrying items are only memoized when entity caching is enabled,
+ * with the item list compared by identity. Models referring to {@link RegisteredEntities} are always memoized, keyed by
+ * the serialized payload of the registered version.
+ */
+class ModelCache {
+    private static final int MAX_ENTRIES = 256;
+
+    private final boolean cacheEntities;
+
+    private final Map<ModelKey, AuthorizationCheck.AuthorizationModelRequest> entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<ModelKey, AuthorizationCheck.AuthorizationModelRequest> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+    private volatile Last last;
+
+    /**
+     * Constructs a model memo.
+     *
+     * @param cacheEntities True if models carrying entity items may be memoized, comparing the items by identity.
+     */
+    ModelCache(boolean cacheEntities) {
+        this.cacheEntities = cacheEntities;
+    }
+
+    /**
+     * Gets the mapped form of a model, mapping it on a miss.
+     *
+     * @param model   The model.
+     * @param mapping Maps the model.
+     * @return The mapped model.
+     */
+    AuthorizationCheck.AuthorizationModelRequest get(AZModel model, Function<AZModel, AuthorizationCheck.AuthorizationModelRequest> mapping) {
+        Last recent = last;
+        if (recent != null && recent.model == model && recent.key.matches(model)) {
+            return recent.mapped;
+        }
+        if (!cacheEntities && hasItems(model) && !(model.getEntities() instanceof RegisteredEntities)) {
+            return mapping.apply(model);
+        }
+        ModelKey key = ModelKey.of(model);
+        AuthorizationCheck.AuthorizationModelRequest mapped;
+        synchronized (entries) {
+            mapped = entries.get(key);
+        }
+        if (mapped == null) {
+            mapped = mapping.apply(model);
+            synchronized (entries) {
+                entries.put(key, mapped);
+            }
+        }
+        last = new Last(model, key, mapped);
+        return mapped;
+    }
+
+    private static boolean hasItems(AZModel model) {
+        return model.getEntities() != null && model.getEntities().getItems() != null && !model.getEntities().getItems().isEmpty();
+    }
+
+    /**
+     * The model content read by the mapping, with the entity items compared by identity and size.
+     * The presence bits tell an absent policy store, principal or entity set from one whose fields are all null.
+     */
+    private record ModelKey(long zoneId, int presence, String storeKind, String storeId, String principalType, String principalId,
+                            String principalSource, String entitiesSchema, Object entitiesContent,
+                            int entitiesSize) {
+
+        static ModelKey of(AZModel model) {
+            PolicyStore store = model.getPolicyStore();
+            Principal principal = model.getPrincipal();
+            Entities entities = model.getEntities();
+            return new ModelKey(model.getZoneId(), presence(model),
+                    store != null ? store.getKind() : null, store != null ? store.getId() : null,
+                    principal != null ? principal.getType() : null, principal != null ? principal.getId() : null,
+                    principal != null ? principal.getSource() : null,
+                    entities != null ? entities.getSchema() : null,
+                    content(entities),
+                    entities != null && entities.getItems() != null ? entities.getItems().size() : 0);
+        }
+
+        private static int presence(AZModel model) {
+            return (model.getPolicyStore() != null ? 1 : 0) | (model.getPrincipal() != null ? 2 : 0) | (model.getEntities() != null ? 4 : 0);
+        }
+
+        /**
+         * Gets the object identifying the entity items: the serialized payload of registered entities,
+         * which changes with their version, or else the item list.
+         */
+        private static Object content(Entities entities) {
+            if (entities instanceof RegisteredEntities registered) {
+                return registered.payload();
+            }
+            return entities != null ? entities.getItems() : null;
+        }
+
+        boolean matches(AZModel model) {
+            PolicyStore store = model.getPolicyStore();
+            Principal principal = model.getPrincipal();
+            Entities entities = model.getEntities();
+            return zoneId == model.getZoneId()
+                    && presence == presence(model)
+                    && Objects.equals(storeKind, store != null ? store.getKind() : null)
+                    && Objects.equals(storeId, store != null ? store.getId() : null)
+                    && Objects.equals(principalType, principal != null ? principal.getType() : null)
+                    && Objects.equals(principalId, principal != null ? principal.getId() : null)
+                    && Objects.equals(principalSource, principal != null ? principal.getSource() : null)
+                    && Objects.equals(entitiesSchema, entities != null ? entities.getSchema() : null)
+                    && entitiesContent == content(entities)
+                    && entitiesSize == (entities != null && entities.getItems() != null ? entities.getItems().size() : 0);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof ModelKey other
+                    && zoneId == other.zoneId
+                    && presence == other.presence
+                    && Objects.equals(storeKind, other.storeKind)
+                    && Objects.equals(storeId, other.storeId)
+                    && Objects.equals(principalType, other.principalType)
+                    && Objects.equals(principalId, other.principalId)
+                    && Objects.equals(principalSource, other.principalSource)
+                    && Objects.equals(entitiesSchema, other.entitiesSchema)
+                    && entitiesContent == other.entitiesContent
+                    && entitiesSize == other.entitiesSize;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(zoneId, presence, storeKind, storeId, principalType, principalId, principalSource, entitiesSchema,
+                    System.identityHashCode(entitiesContent), entitiesSize);
+        }
+    }
+
+    private record Last(AZModel model, ModelKey key, AuthorizationCheck.AuthorizationModelRequest mapped) {
+    }
+}
@@ -0,0 +1,166 @@
+/**
+ *   Copyright 2024 Nitro Agility S.r.l.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+  */
+
+package com.permguard.pep.client;
+
+import com.permguard.pep.config.TransportConfig;
+import com.permguard.pep.config.TransportType;
+import io.grpc.netty.NettyChannelBuilder;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollDomainSocketChannel;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.channel.unix.DomainSocketAddress;
+import io.netty.util.concurrent.DefaultThreadFactory;
+
+import java.net.SocketAddress;
+import java.util.Locale;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * The Netty event loop group, channel type and buffer allocator shared by the channels of a client, as described
+ * by a {@link TransportConfig}. The event loop group belongs to the client and is shut down once its channels terminate.
+ */
+class NettyTransport {
+    private final TransportType type;
+    private final EventLoopGroup eventLoopGroup;
+    private final Class<? extends Channel> channelType;
+    private final ByteBufAllocator allocator;
+
+    /**
+     * Constructs a transport, falling back to NIO if epoll is requested but not available.
+     *
+     * @param config The transport configuration.
+     */
+    NettyTransport(TransportConfig config) {
+        this.type = config.getType() == TransportType.EPOLL && isEpollAvailable() ? TransportType.EPOLL : TransportType.NIO;
+        ThreadFactory threads = new DefaultThreadFactory("permguard-" + type.name().toLowerCase(Locale.ROOT), true);
+        if (type == TransportType.EPOLL) {
+            this.eventLoopGroup = EpollClasses.newEventLoopGroup(config.getEventLoopThreads(), threads);
+            this.channelType = EpollClasses.socketChannelType();
+        } else {
+            this.eventLoopGroup = new NioEventLoopGroup(config.getEventLoopThreads(), threads);
+            this.channelType = NioSocketChannel.class;
+        }
+        // Each pooled allocator keeps its own arenas and thread caches, so the clients share one per buffer kind
+        this.allocator = config.isPooledAllocator()
+                ? (config.isDirectBuffers() ? SharedAllocators.DIRECT : SharedAllocators.HEAP)
+                : new UnpooledByteBufAllocator(config.isDirectBuffers());
+    }
+
+    /**
+     * Gets the transport in use, after any fallback.
+     *
+     * @return The transport type.
+     */
+    TransportType type() {
+        return type;
+    }
+
+    /**
+     * Gets the buffer allocator of the channels.
+     *
+     * @return The allocator.
+     */
+    ByteBufAllocator allocator() {
+        return allocator;
+    }
+
+    /**
+     * Configures a channel builder to use this transport.
+     *
+     * @param builder The channel builder.
+     * @return The channel builder.
+     */
+    NettyChannelBuilder configure(NettyChannelBuilder builder) {
+        return builder.eventLoopGroup(eventLoopGroup)
+                .channelType(channelType)
+                .withOption(ChannelOption.ALLOCATOR, allocator);
+    }
+
+    /**
+     * Creates a channel builder connecting to a Unix domain socket over this transport, which must be epoll.
+     *
+     * @param path The path of the socket.
+     * @return The channel builder.
+     */
+    NettyChannelBuilder forDomainSocket(String path) {
+        return NettyChannelBuilder.forAddress(EpollClasses.domainSocketAddress(path))
+                .eventLoopGroup(eventLoopGroup)
+                .channelType(EpollClasses.domainSocketChannelType())
+                .withOption(ChannelOption.ALLOCATOR, allocator);
+    }
+
+    /**
+     * Shuts the event loop group down once its pending tasks are done.
+     */
+    void shutdown() {
+        eventLoopGroup.shutdownGracefully();
+    }
+
+    private static boolean isEpollAvailable() {
+        try {
+            return EpollClasses.isAvailable();
+        } catch (LinkageError e) {
+            // netty-transport-native-epoll is not on the classpath
+            return false;
+        }
+    }
+
+    /**
+     * The pooled allocators shared by every transport, created on first use.
+     */
+    private static final class SharedAllocators {
+        static final PooledByteBufAllocator DIRECT = new PooledByteBufAllocator(true);
+        static final PooledByteBufAllocator HEAP = new PooledByteBufAllocator(false);
+    }
+
+    /**
+     * Isolates the references to the optional epoll classes, which are only loaded when epoll is requested.
+     */
+    private static final class EpollClasses {
+
+        static boolean isAvailable() {
+            return Epoll.isAvailable();
+        }
+
+        static EventLoopGroup newEventLoopGroup(int threads, ThreadFactory threadFactory) {
+            return new EpollEventLoopGroup(threads, threadFactory);
+        }
+
+        static Class<? extends Channel> socketChannelType() {
+            return EpollSocketChannel.class;
+        }
+
+        static Class<? extends Channel> domainSocketChannelType() {
+            return EpollDomainSocketChannel.class;
+        }
+
+        static SocketAddress domainSocketAddress(String path) {
+            return new DomainSocketAddress(path);
+        }
+    }
+}
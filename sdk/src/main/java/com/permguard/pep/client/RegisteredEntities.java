@@ -0,0 +1,133 @@
+/**
+ *   Copyright 2024 Nitro Agility S.r.l.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+  */
+
+package com.permguard.pep.client;
+
+import com.google.protobuf.ByteString;
+import com.permguard.pep.model.request.Entities;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An entity set registered with {@link AZClient#registerEntities(String, Entities, String)}.
+ * <p>
+ * The entities are serialized to protobuf once, when registered, and the serialized bytes are copied as is into every
+ * request whose authorization model refers to this instance, instead of converting the items again. Registering the
+ * same name with another version replaces the content of this instance, and the following checks send the new bytes.
+ * The content cannot be changed through the setters.
+ */
+public class RegisteredEntities extends Entities {
+    private final String name;
+    private volatile Snapshot snapshot;
+
+    /**
+     * Constructs a registered entity set.
+     *
+     * @param name     The registration name.
+     * @param version  The version token.
+     * @param entities The entities.
+     * @param payload  The serialized {@code Entities} message.
+     */
+    RegisteredEntities(String name, String version, Entities entities, ByteString payload) {
+        this.name = name;
+        update(version, entities, payload);
+    }
+
+    /**
+     * Gets the registration name.
+     *
+     * @return The name.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the version token of the registered content.
+     *
+     * @return The version token.
+     */
+    public String getVersion() {
+        return snapshot.version;
+    }
+
+    /**
+     * Gets the size of the serialized entities.
+     *
+     * @return The size in bytes.
+     */
+    public int getSerializedSize() {
+        return snapshot.payload.size();
+    }
+
+    @Override
+    public String getSchema() {
+        Snapshot current = snapshot;
+        return current != null ? current.schema : null;
+    }
+
+    @Override
+    public List<Map<String, Object>> getItems() {
+        Snapshot current = snapshot;
+        return current != null ? current.items : null;
+    }
+
+    /**
+     * Not supported: register the entities again with a new version instead.
+     *
+     * @throws UnsupportedOperationException Always.
+     */
+    @Override
+    public void setSchema(String schema) {
+        throw new UnsupportedOperationException("Registered entities are replaced by registering a new version");
+    }
+
+    /**
+     * Not supported: register the entities again with a new version instead.
+     *
+     * @throws UnsupportedOperationException Always.
+     */
+    @Override
+    public void setItems(List<Map<String, Object>> items) {
+        throw new UnsupportedOperationException("Registered entities are replaced by registering a new version");
+    }
+
+    /**
+     * Gets the serialized {@code Entities} message.
+     *
+     * @return The serialized entities.
+     */
+    ByteString payload() {
+        return snapshot.payload;
+    }
+
+    /**
+     * Replaces the registered content.
+     *
+     * @param version  The new version token.
+     * @param entities The new entities.
+     * @param payload  The serialized {@code Entities} message.
+     */
+    void update(String version, Entities entities, ByteString payload) {
+        this.snapshot = new Snapshot(version, entities.getSchema(), entities.getItems(), payload);
+    }
+
+    private record Snapshot(String version, String schema, List<Map<String, Object>> items, ByteString payload) {
+    }
+}
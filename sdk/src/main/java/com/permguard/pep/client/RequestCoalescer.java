@@ -0,0 +1,122 @@
+/**
+ *   Copyright 2024 Nitro Agility S.r.l.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+  */
+
+package com.permguard.pep.client;
+
+import com.permguard.pep.internal.proto.AuthorizationCheck;
+import com.permguard.pep.metrics.AZMetrics;
+import io.grpc.Deadline;
+import io.grpc.Status;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight deduplication of concurrent identical checks.
+ * The first caller for a key performs the RPC; callers arriving while it is outstanding
+ * share its outcome instead of issuing their own.
+ */
+class RequestCoalescer {
+    private final ConcurrentHashMap<AuthorizationCheck.AuthorizationCheckRequest,
+            CompletableFuture<AuthorizationCheck.AuthorizationCheckResponse>> inFlight = new ConcurrentHashMap<>();
+    private final AZMetrics metrics;
+
+    /**
+     * Constructs a coalescer reporting to the given metrics.
+     *
+     * @param metrics The metrics of the client.
+     */
+    RequestCoalescer(AZMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Starts a call, or joins the identical call already in flight, and waits for its outcome.
+     * The call is shared, so it must not depend on the deadline or the context of the caller that starts it.
+     *
+     * @param key      The request key, without request ID.
+     * @param deadline The caller's deadline, bounding its wait on the shared call, or null.
+     * @param call     The call to start when no identical call is in flight.
+     * @return The shared response.
+     */
+    AuthorizationCheck.AuthorizationCheckResponse execute(AuthorizationCheck.AuthorizationCheckRequest key, Deadline deadline,
+                                                          Supplier<CompletableFuture<AuthorizationCheck.AuthorizationCheckResponse>> call) {
+        return await(executeAsync(key, null, call), deadline);
+    }
+
+    /**
+     * Starts an asynchronous call, or joins the identical call already in flight.
+     * The call is shared, so it must not depend on the deadline or the context of the caller that starts it.
+     *
+     * @param key      The request key, without request ID.
+     * @param deadline The caller's deadline, bounding its wait on the shared call, or null.
+     * @param call     The call to start when no identical call is in flight.
+     * @return A future completed with the shared response.
+     */
+    CompletableFuture<AuthorizationCheck.AuthorizationCheckResponse> executeAsync(AuthorizationCheck.AuthorizationCheckRequest key, Deadline deadline,
+                                                                                Supplier<CompletableFuture<AuthorizationCheck.AuthorizationCheckResponse>> call) {
+        CompletableFuture<AuthorizationCheck.AuthorizationCheckResponse> pending = new CompletableFuture<>();
+        CompletableFuture<AuthorizationCheck.AuthorizationCheckResponse> existing = inFlight.putIfAbsent(key, pending);
+        CompletableFuture<AuthorizationCheck.AuthorizationCheckResponse> shared;
+        if (existing != null) {
+            metrics.recordCoalesced();
+            shared = existing;
+        } else {
+            shared = pending;
+            try {
+                call.get().whenComplete((response, error) -> {
+                    inFlight.remove(key, pending);
+                    if (error != null) {
+                        pending.completeExceptionally(error);
+                    } else {
+                        pending.complete(response);
+                    }
+                });
+            } catch (RuntimeException e) {
+                inFlight.remove(key, pending);
+                pending.completeExceptionally(e);
+            }
+        }
+        // Time out a private copy: the shared future must stay intact for the other callers
+        return deadline != null ? shared.copy().orTimeout(deadline.timeRemaining(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS) : shared;
+    }
+
+    private static AuthorizationCheck.AuthorizationCheckResponse await(CompletableFuture<AuthorizationCheck.AuthorizationCheckResponse> future,
+                                                                       Deadline deadline) {
+        try {
+            return deadline != null ? future.get(deadline.timeRemaining(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS) : future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new CompletionException(e.getCause());
+        } catch (TimeoutException e) {
+            throw Status.DEADLINE_EXCEEDED.withDescription("Deadline exceeded waiting for a shared check in flight")
+                    .asRuntimeException();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw Status.CANCELLED.withDescription("Interrupted waiting for a shared check in flight")
+                    .withCause(e).asRuntimeException();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/**
+ *   Copyright 2024 Nitro Agility S.r.l.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+  */
+
+package com.permguard.pep.client;
+
+/**
+ * Point-in-time statistics of the attempts made by authorization checks.
+ */
+public class RetryStats {
+    private final long attemptCount;
+    private final long retryCount;
+    private final long transparentRetryCount;
+
+    /**
+     * Constructor with parameters.
+     *
+     * @param attemptCount          The number of attempts sent to the PDP, including retries.
+     * @param retryCount            The number of retries made by the retry policy.
+     * @param transparentRetryCount The number of retries made by gRPC for attempts that never reached the PDP.
+     */
+    public RetryStats(long attemptCount, long retryCount, long transparentRetryCount) {
+        this.attemptCount = attemptCount;
+        this.retryCount = retryCount;
+        this.transparentRetryCount = transparentRetryCount;
+    }
+
+    /**
+     * Gets the number of attempts sent to the PDP, including retries.
+     *
+     * @return The attempt count.
+     */
+    public long getAttemptCount() {
+        return attemptCount;
+    }
+
+    /**
+     * Gets the number of retries made by the retry policy.
+     *
+     * @return The retry count.
+     */
+    public long getRetryCount() {
+        return retryCount;
+    }
+
+    /**
+     * Gets the number of retries made by gRPC for attempts that never reached the PDP.
+     *
+     * @return The transparent retry count.
+     */
+    public long getTransparentRetryCount() {
+        return transparentRetryCount;
+    }
+}
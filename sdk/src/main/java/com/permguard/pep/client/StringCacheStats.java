@@ -0,0 +1,91 @@
+/**
+ *   Copyright 2024 Nitro Agility S.r.l.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+  */
+
+package com.permguard.pep.client;
+
+/**
+ * Point-in-time statistics of the cache of encoded identifier strings.
+ */
+public class StringCacheStats {
+    private final long hitCount;
+    private final long missCount;
+    private final long rejectionCount;
+    private final int size;
+
+    /**
+     * Constructor with parameters.
+     *
+     * @param hitCount       The number of strings whose encoding was found in the cache.
+     * @param missCount      The number of strings that had to be encoded.
+     * @param rejectionCount The number of encoded strings not cached because the cache was full.
+     * @param size           The current number of cached strings.
+     */
+    public StringCacheStats(long hitCount, long missCount, long rejectionCount, int size) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.rejectionCount = rejectionCount;
+        this.size = size;
+    }
+
+    /**
+     * Gets the number of strings whose encoding was found in the cache.
+     *
+     * @return The hit count.
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Gets the number of strings that had to be encoded.
+     *
+     * @return The miss count.
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Gets the number of encoded strings not cached because the cache was full.
+     * A count growing with the miss count means the cache is smaller than the set of identifiers in use.
+     *
+     * @return The rejection count.
+     */
+    public long getRejectionCount() {
+        return rejectionCount;
+    }
+
+    /**
+     * Gets the current number of cached strings.
+     *
+     * @return The number of cached strings.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Gets the ratio of strings whose encoding was found in the cache.
+     *
+     * @return The hit rate between 0 and 1.
+     */
+    public double getHitRate() {
+        long total = hitCount + missCount;
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+}
@@ -0,0 +1,89 @@
+/**
+ *   Copyright 2024 Nitro Agility S.r.l.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+  */
+
+package com.permguard.pep.client;
+
+import com.google.protobuf.ByteString;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of the UTF-8 encoding of identifier strings (action names, entity types, policy store and principal
+ * IDs) that repeat on every request, so they are not encoded again each time a request is serialized.
+ * Once full, the cache admits no new strings: the identifiers repeating on every request are the first ones cached,
+ * and clearing it would only make a working set larger than the cache thrash. Strings refused that way are counted,
+ * so that an undersized cache shows in the statistics. Long strings are never cached.
+ */
+class Utf8Cache {
+    private static final int MAX_LENGTH = 256;
+
+    private final int maxEntries;
+    private final ConcurrentHashMap<String, ByteString> entries = new ConcurrentHashMap<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+
+    /**
+     * Constructs a cache.
+     *
+     * @param maxEntries The maximum number of cached strings.
+     */
+    Utf8Cache(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Gets the UTF-8 encoding of a string, encoding and caching it on a miss.
+     *
+     * @param value The string.
+     * @return The encoded string.
+     */
+    ByteString get(String value) {
+        ByteString encoded = entries.get(value);
+        if (encoded != null) {
+            hits.increment();
+            return encoded;
+        }
+        misses.increment();
+        encoded = ByteString.copyFromUtf8(value);
+        if (value.length() <= MAX_LENGTH) {
+            // A slot is reserved before the insertion, so concurrent misses cannot take the cache past its bound
+            if (size.incrementAndGet() <= maxEntries) {
+                if (entries.putIfAbsent(value, encoded) != null) {
+                    size.decrementAndGet();
+                }
+            } else {
+                size.decrementAndGet();
+                rejections.increment();
+            }
+        }
+        return encoded;
+    }
+
+    /**
+     * Gets the statistics of the cache.
+     *
+     * @return The cache statistics.
+     */
+    StringCacheStats stats() {
+        return new StringCacheStats(hits.sum(), misses.sum(), rejections.sum(), entries.size());
+    }
+}
@@ -18,6 +18,13 @@
 
 package com.permguard.pep.config;
 
+import com.permguard.pep.metrics.AZMetrics;
+import com.permguard.pep.tracing.AZTracing;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executor;
+
 /**
  * Configuration class for the AZClient.
  * This class holds the settings required to connect to the Policy Decision Point (PDP) service.
@@ -26,6 +33,29 @@ public class AZConfig {
     private String host;
     private int port;
     private boolean usePlaintext;
+    private String target;
+    private List<String> endpoints;
+    private Path endpointsFile;
+    private Duration endpointsRefreshInterval = Duration.ofSeconds(5);
+    private LoadBalancingPolicy loadBalancingPolicy = LoadBalancingPolicy.ROUND_ROBIN;
+    private OutlierDetectionConfig outlierDetection;
+    private int channelCount = 1;
+    private ChannelSelectionPolicy channelSelectionPolicy = ChannelSelectionPolicy.ROUND_ROBIN;
+    private Duration deadline;
+    private Executor executor;
+    private boolean virtualThreads;
+    private DecisionCacheConfig decisionCache;
+    private boolean coalesceRequests;
+    private boolean cacheEntities;
+    private boolean directMarshalling;
+    private int stringCacheSize = 1024;
+    private BatchingConfig batching;
+    private BulkCheckConfig bulkCheck = new BulkCheckConfig();
+    private TransportConfig transport;
+    private HedgingConfig hedging;
+    private RetryConfig retry;
+    private AZMetrics metrics;
+    private AZTracing tracing;
 
     /**
      * Default constructor with default settings.
@@ -86,6 +116,28 @@ public class AZConfig {
         this.port = port;
     }
 
+    /**
+     * Gets the target of the PDP service.
+     *
+     * @return The target URI, or null to connect to the host and port or the endpoints.
+     */
+    public String getTarget() {
+        return target;
+    }
+
+    /**
+     * Sets the target of the PDP service as a gRPC target URI, taking precedence over the host, port and endpoints.
+     * A {@code unix:///path/to/pdp.sock} target connects to a PDP listening on a Unix domain socket, e.g. a sidecar
+     * on the same host, through the epoll transport; it requires {@code io.netty:netty-transport-native-epoll}
+     * with the native library of the platform. Other targets, such as {@code dns:///pdp.internal:9094},
+     * are resolved by gRPC.
+     *
+     * @param target The target URI, or null to connect to the host and port or the endpoints.
+     */
+    public void setTarget(String target) {
+        this.target = target;
+    }
+
     /**
      * Checks if plaintext communication is enabled.
      *
@@ -103,4 +155,416 @@ public class AZConfig {
     public void setUsePlaintext(boolean usePlaintext) {
         this.usePlaintext = usePlaintext;
     }
+
+    /**
+     * Gets the list of PDP endpoints.
+     *
+     * @return The endpoints as {@code host:port} entries, or null when only host and port are used.
+     */
+    public List<String> getEndpoints() {
+        return endpoints;
+    }
+
+    /**
+     * Sets a static list of PDP endpoints to balance calls across.
+     * When endpoints are configured, host and port only provide the authority presented to the PDP
+     * and the default port of entries without one.
+     *
+     * @param endpoints The endpoints as {@code host:port} entries.
+     */
+    public void setEndpoints(List<String> endpoints) {
+        this.endpoints = endpoints;
+    }
+
+    /**
+     * Gets the file listing the PDP endpoints.
+     *
+     * @return The endpoints file, or null.
+     */
+    public Path getEndpointsFile() {
+        return endpointsFile;
+    }
+
+    /**
+     * Sets a file listing the PDP endpoints, one {@code host:port} per line ({@code #} starts a comment).
+     * The file is re-read whenever it changes and takes precedence over the static endpoints.
+     *
+     * @param endpointsFile The endpoints file.
+     */
+    public void setEndpointsFile(Path endpointsFile) {
+        this.endpointsFile = endpointsFile;
+    }
+
+    /**
+     * Gets how often the endpoints file is checked for changes.
+     *
+     * @return The refresh interval.
+     */
+    public Duration getEndpointsRefreshInterval() {
+        return endpointsRefreshInterval;
+    }
+
+    /**
+     * Sets how often the endpoints file is checked for changes.
+     *
+     * @param endpointsRefreshInterval The refresh interval, or zero to read the file only once.
+     */
+    public void setEndpointsRefreshInterval(Duration endpointsRefreshInterval) {
+        this.endpointsRefreshInterval = endpointsRefreshInterval;
+    }
+
+    /**
+     * Gets the load balancing policy used across the PDP endpoints.
+     *
+     * @return The load balancing policy.
+     */
+    public LoadBalancingPolicy getLoadBalancingPolicy() {
+        return loadBalancingPolicy;
+    }
+
+    /**
+     * Sets the load balancing policy used across the PDP endpoints.
+     *
+     * @param loadBalancingPolicy The load balancing policy.
+     */
+    public void setLoadBalancingPolicy(LoadBalancingPolicy loadBalancingPolicy) {
+        this.loadBalancingPolicy = loadBalancingPolicy;
+    }
+
+    /**
+     * Gets the outlier ejection configuration.
+     *
+     * @return The outlier detection configuration, or null if outlier ejection is disabled.
+     */
+    public OutlierDetectionConfig getOutlierDetection() {
+        return outlierDetection;
+    }
+
+    /**
+     * Enables ejection of failing PDP endpoints with the given configuration.
+     *
+     * @param outlierDetection The outlier detection configuration, or null to disable outlier ejection.
+     */
+    public void setOutlierDetection(OutlierDetectionConfig outlierDetection) {
+        this.outlierDetection = outlierDetection;
+    }
+
+    /**
+     * Gets the number of channels, each with its own connection, the client spreads calls over.
+     *
+     * @return The channel count.
+     */
+    public int getChannelCount() {
+        return channelCount;
+    }
+
+    /**
+     * Sets the number of channels, each with its own connection, the client spreads calls over.
+     *
+     * @param channelCount The channel count (at least 1).
+     */
+    public void setChannelCount(int channelCount) {
+        this.channelCount = channelCount;
+    }
+
+    /**
+     * Gets how calls are spread over the client's channels.
+     *
+     * @return The channel selection policy.
+     */
+    public ChannelSelectionPolicy getChannelSelectionPolicy() {
+        return channelSelectionPolicy;
+    }
+
+    /**
+     * Sets how calls are spread over the client's channels.
+     *
+     * @param channelSelectionPolicy The channel selection policy.
+     */
+    public void setChannelSelectionPolicy(ChannelSelectionPolicy channelSelectionPolicy) {
+        this.channelSelectionPolicy = channelSelectionPolicy;
+    }
+
+    /**
+     * Gets the default deadline of an authorization check.
+     *
+     * @return The default deadline, or null if checks have no deadline.
+     */
+    public Duration getDeadline() {
+        return deadline;
+    }
+
+    /**
+     * Sets the default deadline of an authorization check, covering the whole call including retries.
+     * A shorter deadline inherited from the current gRPC context always takes precedence.
+     *
+     * @param deadline The default deadline, or null for no deadline.
+     */
+    public void setDeadline(Duration deadline) {
+        this.deadline = deadline;
+    }
+
+    /**
+     * Gets the executor used by the asynchronous API to map requests and responses.
+     *
+     * @return The executor, or null to use the common fork-join pool.
+     */
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Sets the executor used by the asynchronous API to map requests and responses.
+     * gRPC callbacks are also delivered on this executor, keeping the mapping off the transport threads.
+     *
+     * @param executor The executor, or null to use the common fork-join pool.
+     */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Gets the configuration of the Netty transport.
+     *
+     * @return The transport configuration, or null to use the gRPC defaults.
+     */
+    public TransportConfig getTransport() {
+        return transport;
+    }
+
+    /**
+     * Sets the configuration of the Netty transport: epoll or NIO, the number of event loop threads and the
+     * allocation of I/O buffers. It does not apply to a client built over an existing channel.
+     *
+     * @param transport The transport configuration, or null to use the gRPC defaults.
+     */
+    public void setTransport(TransportConfig transport) {
+        this.transport = transport;
+    }
+
+    /**
+     * Checks whether the client runs its callbacks on virtual threads.
+     *
+     * @return True if virtual threads are enabled.
+     */
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * Enables a virtual-thread-per-task executor for the channels' callbacks and, unless an executor is set,
+     * for the mapping of the asynchronous API. Blocking checks park the calling thread without pinning it, so
+     * callers can issue them from their own virtual threads. The executor is shut down with the client.
+     * Requires Java 21 or later; on earlier runtimes the option has no effect.
+     *
+     * @param virtualThreads True to enable virtual threads.
+     */
+    public void setVirtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+
+    /**
+     * Gets the client-side decision cache configuration.
+     *
+     * @return The decision cache configuration, or null if caching is disabled.
+     */
+    public DecisionCacheConfig getDecisionCache() {
+        return decisionCache;
+    }
+
+    /**
+     * Enables the client-side decision cache with the given configuration.
+     *
+     * @param decisionCache The decision cache configuration, or null to disable caching.
+     */
+    public void setDecisionCache(DecisionCacheConfig decisionCache) {
+        this.decisionCache = decisionCache;
+    }
+
+    /**
+     * Checks if concurrent identical checks share a single in-flight RPC.
+     *
+     * @return True if request coalescing is enabled.
+     */
+    public boolean isCoalesceRequests() {
+        return coalesceRequests;
+    }
+
+    /**
+     * Sets whether concurrent identical checks (same request apart from the request ID) share a single in-flight RPC.
+     *
+     * @param coalesceRequests True to enable request coalescing.
+     */
+    public void setCoalesceRequests(boolean coalesceRequests) {
+        this.coalesceRequests = coalesceRequests;
+    }
+
+    /**
+     * Gets the micro-batching configuration.
+     *
+     * @return The batching configuration, or null if batching is disabled.
+     */
+    public BatchingConfig getBatching() {
+        return batching;
+    }
+
+    /**
+     * Enables automatic micro-batching of atomic checks with the given configuration.
+     *
+     * @param batching The batching configuration, or null to disable batching.
+     */
+    public void setBatching(BatchingConfig batching) {
+        this.batching = batching;
+    }
+
+    /**
+     * Gets the configuration of bulk checks performed by {@code AZClient.checkAll}.
+     *
+     * @return The bulk check configuration.
+     */
+    public BulkCheckConfig getBulkCheck() {
+        return bulkCheck;
+    }
+
+    /**
+     * Sets the configuration of bulk checks performed by {@code AZClient.checkAll}.
+     *
+     * @param bulkCheck The bulk check configuration.
+     */
+    public void setBulkCheck(BulkCheckConfig bulkCheck) {
+        this.bulkCheck = bulkCheck;
+    }
+
+    /**
+     * Gets the hedged requests configuration.
+     *
+     * @return The hedging configuration, or null if hedging is disabled.
+     */
+    public HedgingConfig getHedging() {
+        return hedging;
+    }
+
+    /**
+     * Enables hedged requests with the given configuration: a check still unanswered after a latency percentile
+     * is sent again, and the first answer wins.
+     *
+     * @param hedging The hedging configuration, or null to disable hedging.
+     */
+    public void setHedging(HedgingConfig hedging) {
+        this.hedging = hedging;
+    }
+
+    /**
+     * Gets the retry policy.
+     *
+     * @return The retry configuration, or null if failed checks are not retried.
+     */
+    public RetryConfig getRetry() {
+        return retry;
+    }
+
+    /**
+     * Enables automatic retries of checks failing with a transient status, e.g. during a rolling restart of the PDP.
+     *
+     * @param retry The retry configuration, or null to disable retries.
+     */
+    public void setRetry(RetryConfig retry) {
+        this.retry = retry;
+    }
+
+    /**
+     * Gets the metrics receiving the measurements of the client.
+     *
+     * @return The metrics, or null if no metrics are recorded.
+     */
+    public AZMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Sets the metrics receiving the measurements of the client, e.g. a {@code SimpleAZMetrics} or a {@code MicrometerAZMetrics}.
+     *
+     * @param metrics The metrics, or null to record nothing.
+     */
+    public void setMetrics(AZMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Gets the tracing of the client's checks.
+     *
+     * @return The tracing, or null if checks are not traced.
+     */
+    public AZTracing getTracing() {
+        return tracing;
+    }
+
+    /**
+     * Sets the tracing of the client's checks, e.g. an {@code OpenTelemetryAZTracing}.
+     *
+     * @param tracing The tracing, or null to trace nothing.
+     */
+    public void setTracing(AZTracing tracing) {
+        this.tracing = tracing;
+    }
+
+    /**
+     * Checks whether the encoding of an {@code Entities} instance is reused across checks.
+     *
+     * @return True if entity caching is enabled.
+     */
+    public boolean isCacheEntities() {
+        return cacheEntities;
+    }
+
+    /**
+     * Sets whether the encoding of an {@code Entities} instance is reused across checks.
+     * When enabled, an entity set must not be modified in place once used in a check: replace its item list instead.
+     *
+     * @param cacheEntities True to enable entity caching.
+     */
+    public void setCacheEntities(boolean cacheEntities) {
+        this.cacheEntities = cacheEntities;
+    }
+
+    /**
+     * Checks whether requests are encoded and responses parsed directly, without protobuf message objects.
+     *
+     * @return True if direct marshalling is enabled.
+     */
+    public boolean isDirectMarshalling() {
+        return directMarshalling;
+    }
+
+    /**
+     * Enables encoding requests straight from {@code AZRequest} to the wire and parsing responses straight into
+     * {@code AZResponse}, skipping the intermediate protobuf messages. The bytes sent are the same.
+     * Direct marshalling does not apply when the decision cache, request coalescing or batching is enabled,
+     * since they operate on protobuf messages, nor to check templates.
+     *
+     * @param directMarshalling True to enable direct marshalling.
+     */
+    public void setDirectMarshalling(boolean directMarshalling) {
+        this.directMarshalling = directMarshalling;
+    }
+
+    /**
+     * Gets the maximum number of identifier strings whose UTF-8 encoding is cached.
+     *
+     * @return The string cache size, 0 if the cache is disabled.
+     */
+    public int getStringCacheSize() {
+        return stringCacheSize;
+    }
+
+    /**
+     * Sets the maximum number of identifier strings (action names, subject and resource types, policy store and
+     * principal IDs) whose UTF-8 encoding is cached and reused by every request. Subject and resource IDs are not
+     * cached. Once full, the cache admits no new strings. Defaults to 1024.
+     *
+     * @param stringCacheSize The string cache size, or 0 to disable the cache.
+     */
+    public void setStringCacheSize(int stringCacheSize) {
+        this.stringCacheSize = stringCacheSize;
+    }
 }
@@ -0,0 +1,87 @@
+/**
+ *   Copyright 2024 Nitro Agility S.r.l.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+  */
+
+package com.permguard.pep.config;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the automatic micro-batching of atomic checks.
+ * Atomic checks sharing the same authorization model are collected for at most the batching window,
+ * or until the maximum batch size is reached, and sent to the PDP as one request with multiple evaluations.
+ */
+public class BatchingConfig {
+    private Duration window;
+    private int maxBatchSize;
+
+    /**
+     * Default constructor with default settings.
+     * Sets a 2 millisecond window and batches of at most 64 evaluations.
+     */
+    public BatchingConfig() {
+        this.window = Duration.ofMillis(2);
+        this.maxBatchSize = 64;
+    }
+
+    /**
+     * Constructor with custom settings.
+     *
+     * @param window       How long the first check of a batch waits for others to join.
+     * @param maxBatchSize The number of checks that triggers an immediate dispatch.
+     */
+    public BatchingConfig(Duration window, int maxBatchSize) {
+        this.window = window;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Gets how long the first check of a batch waits for others to join.
+     *
+     * @return The batching window.
+     */
+    public Duration getWindow() {
+        return window;
+    }
+
+    /**
+     * Sets how long the first check of a batch waits for others to join.
+     *
+     * @param window The batching window.
+     */
+    public void setWindow(Duration window) {
+        this.window = window;
+    }
+
+    /**
+     * Gets the number of checks that triggers an immediate dispatch.
+     *
+     * @return The maximum batch size.
+     */
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    /**
+     * Sets the number of checks that triggers an immediate dispatch.
+     *
+     * @param maxBatchSize The maximum batch size.
+     */
+    public void setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+}
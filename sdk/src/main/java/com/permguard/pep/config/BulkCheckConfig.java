@@ -0,0 +1,84 @@
+/**
+ *   Copyright 2024 Nitro Agility S.r.l.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+  */
+
+package com.permguard.pep.config;
+
+/**
+ * Configuration of bulk checks, which split a large list of evaluations into chunks
+ * sent to the PDP as separate multi-evaluation requests.
+ */
+public class BulkCheckConfig {
+    private int chunkSize;
+    private int maxConcurrentChunks;
+
+    /**
+     * Default constructor with default settings.
+     * Sets chunks of 100 evaluations, with at most 4 chunks in flight.
+     */
+    public BulkCheckConfig() {
+        this.chunkSize = 100;
+        this.maxConcurrentChunks = 4;
+    }
+
+    /**
+     * Constructor with custom settings.
+     *
+     * @param chunkSize           The number of evaluations per request.
+     * @param maxConcurrentChunks The number of chunk requests in flight at the same time.
+     */
+    public BulkCheckConfig(int chunkSize, int maxConcurrentChunks) {
+        this.chunkSize = chunkSize;
+        this.maxConcurrentChunks = maxConcurrentChunks;
+    }
+
+    /**
+     * Gets the number of evaluations per request.
+     *
+     * @return The chunk size.
+     */
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Sets the number of evaluations per request.
+     *
+     * @param chunkSize The chunk size.
+     */
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Gets the number of chunk requests in flight at the same time.
+     *
+     * @return The maximum number of concurrent chunks.
+     */
+    public int getMaxConcurrentChunks() {
+        return maxConcurrentChunks;
+    }
+
+    /**
+     * Sets the number of chunk requests in flight at the same time.
+     *
+     * @param maxConcurrentChunks The maximum number of concurrent chunks.
+     */
+    public void setMaxConcurrentChunks(int maxConcurrentChunks) {
+        this.maxConcurrentChunks = maxConcurrentChunks;
+    }
+}
@@ -0,0 +1,132 @@
+/**
+ *   Copyright 2024 Nitro Agility S.r.l.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+  */
+
+package com.permguard.pep.config;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the client-side decision cache.
+ * Decisions are cached per request content (excluding the request ID) and expire after a TTL;
+ * the cache is bounded both by number of entries and by the total serialized size of the cached data.
+ */
+public class DecisionCacheConfig {
+    private Duration ttl;
+    private Duration negativeTtl;
+    private int maxEntries;
+    private long maxWeight;
+
+    /**
+     * Default constructor with default settings.
+     * Allowed decisions live 30 seconds, denied decisions 5 seconds, with at most 10000 entries
+     * and 32 MiB of cached data.
+     */
+    public DecisionCacheConfig() {
+        this.ttl = Duration.ofSeconds(30);
+        this.negativeTtl = Duration.ofSeconds(5);
+        this.maxEntries = 10_000;
+        this.maxWeight = 32L * 1024 * 1024;
+    }
+
+    /**
+     * Constructor with custom settings.
+     *
+     * @param ttl         How long an allowed decision is cached.
+     * @param negativeTtl How long a denied decision is cached.
+     * @param maxEntries  The maximum number of cached decisions.
+     * @param maxWeight   The maximum total size in bytes of the cached requests and responses.
+     */
+    public DecisionCacheConfig(Duration ttl, Duration negativeTtl, int maxEntries, long maxWeight) {
+        this.ttl = ttl;
+        this.negativeTtl = negativeTtl;
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+    }
+
+    /**
+     * Gets how long an allowed decision is cached.
+     *
+     * @return The TTL of allowed decisions.
+     */
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    /**
+     * Sets how long an allowed decision is cached.
+     *
+     * @param ttl The TTL of allowed decisions.
+     */
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    /**
+     * Gets how long a denied decision is cached.
+     *
+     * @return The TTL of denied decisions.
+     */
+    public Duration getNegativeTtl() {
+        return negativeTtl;
+    }
+
+    /**
+     * Sets how long a denied decision is cached.
+     *
+     * @param negativeTtl The TTL of denied decisions, or zero to never cache them.
+     */
+    public void setNegativeTtl(Duration negativeTtl) {
+        this.negativeTtl = negativeTtl;
+    }
+
+    /**
+     * Gets the maximum number of cached decisions.
+     *
+     * @return The maximum number of entries.
+     */
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    /**
+     * Sets the maximum number of cached decisions.
+     *
+     * @param maxEntries The maximum number of entries.
+     */
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Gets the maximum total size in bytes of the cached requests and responses.
+     *
+     * @return The maximum weight.
+     */
+    public long getMaxWeight() {
+        return maxWeight;
+    }
+
+    /**
+     * Sets the maximum total size in bytes of the cached requests and responses.
+     *
+     * @param maxWeight The maximum weight.
+     */
+    public void setMaxWeight(long maxWeight) {
+        this.maxWeight = maxWeight;
+    }
+}
@@ -0,0 +1,155 @@
+/**
+ *   Copyright 2024 Nitro Agility S.r.l.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+  */
+
+package com.permguard.pep.config;
+
+import java.time.Duration;
+
+/**
+ * Configuration of hedged authorization checks.
+ * When a call has not answered after the configured percentile of recently observed latencies, a duplicate call is sent,
+ * which the channel's load balancing routes to another endpoint, and the first answer wins.
+ * The share of hedged calls is capped by a token bucket to protect the PDP.
+ */
+public class HedgingConfig {
+    private double percentile;
+    private Duration minDelay;
+    private Duration maxDelay;
+    private double maxHedgeRatio;
+    private int sampleSize;
+
+    /**
+     * Default constructor with default settings.
+     * Hedges after the 95th latency percentile, bounded between 5 and 500 milliseconds, for at most 10% of the calls,
+     * using the latencies of the last 1000 calls.
+     */
+    public HedgingConfig() {
+        this.percentile = 95.0;
+        this.minDelay = Duration.ofMillis(5);
+        this.maxDelay = Duration.ofMillis(500);
+        this.maxHedgeRatio = 0.1;
+        this.sampleSize = 1000;
+    }
+
+    /**
+     * Constructor with custom settings.
+     *
+     * @param percentile    The latency percentile after which a duplicate call is sent, between 0 and 100.
+     * @param minDelay      The lower bound of the hedging delay.
+     * @param maxDelay      The upper bound of the hedging delay.
+     * @param maxHedgeRatio The maximum share of calls that may be hedged, e.g. 0.1 for 10%.
+     * @param sampleSize    The number of recent latencies the percentile is computed from.
+     */
+    public HedgingConfig(double percentile, Duration minDelay, Duration maxDelay, double maxHedgeRatio, int sampleSize) {
+        this.percentile = percentile;
+        this.minDelay = minDelay;
+        this.maxDelay = maxDelay;
+        this.maxHedgeRatio = maxHedgeRatio;
+        this.sampleSize = sampleSize;
+    }
+
+    /**
+     * Gets the latency percentile after which a duplicate call is sent.
+     *
+     * @return The percentile, between 0 and 100.
+     */
+    public double getPercentile() {
+        return percentile;
+    }
+
+    /**
+     * Sets the latency percentile after which a duplicate call is sent.
+     *
+     * @param percentile The percentile, between 0 and 100.
+     */
+    public void setPercentile(double percentile) {
+        this.percentile = percentile;
+    }
+
+    /**
+     * Gets the lower bound of the hedging delay.
+     *
+     * @return The minimum delay.
+     */
+    public Duration getMinDelay() {
+        return minDelay;
+    }
+
+    /**
+     * Sets the lower bound of the hedging delay.
+     *
+     * @param minDelay The minimum delay.
+     */
+    public void setMinDelay(Duration minDelay) {
+        this.minDelay = minDelay;
+    }
+
+    /**
+     * Gets the upper bound of the hedging delay, also used until enough latencies have been observed.
+     *
+     * @return The maximum delay.
+     */
+    public Duration getMaxDelay() {
+        return maxDelay;
+    }
+
+    /**
+     * Sets the upper bound of the hedging delay, also used until enough latencies have been observed.
+     *
+     * @param maxDelay The maximum delay.
+     */
+    public void setMaxDelay(Duration maxDelay) {
+        this.maxDelay = maxDelay;
+    }
+
+    /**
+     * Gets the maximum share of calls that can be hedged.
+     *
+     * @return The maximum hedge ratio.
+     */
+    public double getMaxHedgeRatio() {
+        return maxHedgeRatio;
+    }
+
+    /**
+     * Sets the maximum share of calls that can be hedged.
+     *
+     * @param maxHedgeRatio The maximum hedge ratio, e.g. 0.1 for 10%.
+     */
+    public void setMaxHedgeRatio(double maxHedgeRatio) {
+        this.maxHedgeRatio = maxHedgeRatio;
+    }
+
+    /**
+     * Gets the number of recent latencies the percentile is computed from.
+     *
+     * @return The sample size.
+     */
+    public int getSampleSize() {
+        return sampleSize;
+    }
+
+    /**
+     * Sets the number of recent latencies the percentile is computed from.
+     *
+     * @param sampleSize The sample size.
+     */
+    public void setSampleSize(int sampleSize) {
+        this.sampleSize = sampleSize;
+    }
+}
@@ -0,0 +1,48 @@
+/**
+ *   Copyright 2024 Nitro Agility S.r.l.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+  */
+
+package com.permguard.pep.config;
+
+/**
+ * Load balancing policy used across the PDP endpoints resolved for a channel.
+ */
+public enum LoadBalancingPolicy {
+    /**
+     * Connects to every endpoint and spreads calls evenly across them.
+     */
+    ROUND_ROBIN("round_robin"),
+    /**
+     * Sends every call to the first reachable endpoint, failing over in list order.
+     */
+    PICK_FIRST("pick_first");
+
+    private final String policyName;
+
+    LoadBalancingPolicy(String policyName) {
+        this.policyName = policyName;
+    }
+
+    /**
+     * Gets the gRPC name of the policy.
+     *
+     * @return The policy name used in the gRPC service config.
+     */
+    public String getPolicyName() {
+        return policyName;
+    }
+}
@@ -0,0 +1,178 @@
+/**
+ *   Copyright 2024 Nitro Agility S.r.l.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+  */
+
+package com.permguard.pep.config;
+
+import java.time.Duration;
+
+/**
+ * Configuration of outlier ejection across PDP endpoints.
+ * Every interval, endpoints whose failure percentage exceeds the threshold are ejected from load balancing
+ * for a period growing with the number of consecutive ejections. Calls failing their deadline count as failures,
+ * so a replica that is consistently too slow is ejected as well.
+ */
+public class OutlierDetectionConfig {
+    private Duration interval;
+    private Duration baseEjectionTime;
+    private Duration maxEjectionTime;
+    private int maxEjectionPercentage;
+    private int failurePercentageThreshold;
+    private int minimumHosts;
+    private int requestVolume;
+
+    /**
+     * Default constructor with default settings.
+     * Evaluates endpoints every 10 seconds and ejects those failing more than 50% of at least 20 calls,
+     * provided at least 2 endpoints are candidates, for 30 seconds up to 5 minutes, and never more than half of them.
+     */
+    public OutlierDetectionConfig() {
+        this.interval = Duration.ofSeconds(10);
+        this.baseEjectionTime = Duration.ofSeconds(30);
+        this.maxEjectionTime = Duration.ofMinutes(5);
+        this.maxEjectionPercentage = 50;
+        this.failurePercentageThreshold = 50;
+        this.minimumHosts = 2;
+        this.requestVolume = 20;
+    }
+
+    /**
+     * Gets the time between two ejection analyses.
+     *
+     * @return The analysis interval.
+     */
+    public Duration getInterval() {
+        return interval;
+    }
+
+    /**
+     * Sets the time between two ejection analyses.
+     *
+     * @param interval The analysis interval.
+     */
+    public void setInterval(Duration interval) {
+        this.interval = interval;
+    }
+
+    /**
+     * Gets the base time an endpoint stays ejected, multiplied by its number of consecutive ejections.
+     *
+     * @return The base ejection time.
+     */
+    public Duration getBaseEjectionTime() {
+        return baseEjectionTime;
+    }
+
+    /**
+     * Sets the base time an endpoint stays ejected, multiplied by its number of consecutive ejections.
+     *
+     * @param baseEjectionTime The base ejection time.
+     */
+    public void setBaseEjectionTime(Duration baseEjectionTime) {
+        this.baseEjectionTime = baseEjectionTime;
+    }
+
+    /**
+     * Gets the maximum time an endpoint stays ejected.
+     *
+     * @return The maximum ejection time.
+     */
+    public Duration getMaxEjectionTime() {
+        return maxEjectionTime;
+    }
+
+    /**
+     * Sets the maximum time an endpoint stays ejected.
+     *
+     * @param maxEjectionTime The maximum ejection time.
+     */
+    public void setMaxEjectionTime(Duration maxEjectionTime) {
+        this.maxEjectionTime = maxEjectionTime;
+    }
+
+    /**
+     * Gets the maximum percentage of endpoints that can be ejected at the same time.
+     *
+     * @return The maximum ejection percentage.
+     */
+    public int getMaxEjectionPercentage() {
+        return maxEjectionPercentage;
+    }
+
+    /**
+     * Sets the maximum percentage of endpoints that can be ejected at the same time.
+     *
+     * @param maxEjectionPercentage The maximum ejection percentage.
+     */
+    public void setMaxEjectionPercentage(int maxEjectionPercentage) {
+        this.maxEjectionPercentage = maxEjectionPercentage;
+    }
+
+    /**
+     * Gets the failure percentage above which an endpoint is ejected.
+     *
+     * @return The failure percentage threshold.
+     */
+    public int getFailurePercentageThreshold() {
+        return failurePercentageThreshold;
+    }
+
+    /**
+     * Sets the failure percentage above which an endpoint is ejected.
+     *
+     * @param failurePercentageThreshold The failure percentage threshold.
+     */
+    public void setFailurePercentageThreshold(int failurePercentageThreshold) {
+        this.failurePercentageThreshold = failurePercentageThreshold;
+    }
+
+    /**
+     * Gets the minimum number of endpoints with enough calls for ejection to be considered.
+     *
+     * @return The minimum number of endpoints.
+     */
+    public int getMinimumHosts() {
+        return minimumHosts;
+    }
+
+    /**
+     * Sets the minimum number of endpoints with enough calls for ejection to be considered.
+     *
+     * @param minimumHosts The minimum number of endpoints.
+     */
+    public void setMinimumHosts(int minimumHosts) {
+        this.minimumHosts = minimumHosts;
+    }
+
+    /**
+     * Gets the minimum number of calls an endpoint must receive in an interval to be evaluated.
+     *
+     * @return The request volume.
+     */
+    public int getRequestVolume() {
+        return requestVolume;
+    }
+
+    /**
+     * Sets the minimum number of calls an endpoint must receive in an interval to be evaluated.
+     *
+     * @param requestVolume The request volume.
+     */
+    public void setRequestVolume(int requestVolume) {
+        this.requestVolume = requestVolume;
+    }
+}
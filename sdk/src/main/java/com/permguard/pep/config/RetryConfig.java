@@ -0,0 +1,184 @@
+/**
+ *   Copyright 2024 Nitro Agility S.r.l.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+  */
+
+package com.permguard.pep.config;
+
+import io.grpc.Status;
+
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Configuration of automatic retries of failed authorization checks.
+ * Retries use exponential backoff with jitter, and a token bucket retry budget stops retrying while most calls fail,
+ * so that retries cannot amplify an outage of the PDP.
+ */
+public class RetryConfig {
+    private int maxAttempts;
+    private Duration initialBackoff;
+    private Duration maxBackoff;
+    private double backoffMultiplier;
+    private Set<Status.Code> retryableStatusCodes;
+    private int maxTokens;
+    private double tokenRatio;
+
+    /**
+     * Default constructor with default settings.
+     * Retries UNAVAILABLE calls up to 3 attempts, backing off from 100 milliseconds up to 1 second,
+     * with a budget of 10 tokens refilled by 0.1 token per successful call.
+     */
+    public RetryConfig() {
+        this.maxAttempts = 3;
+        this.initialBackoff = Duration.ofMillis(100);
+        this.maxBackoff = Duration.ofSeconds(1);
+        this.backoffMultiplier = 2.0;
+        this.retryableStatusCodes = EnumSet.of(Status.Code.UNAVAILABLE);
+        this.maxTokens = 10;
+        this.tokenRatio = 0.1;
+    }
+
+    /**
+     * Gets the maximum number of attempts of a call, including the original one.
+     *
+     * @return The maximum number of attempts.
+     */
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * Sets the maximum number of attempts of a call, including the original one (gRPC caps it at 5).
+     * A single attempt disables retries.
+     *
+     * @param maxAttempts The maximum number of attempts.
+     */
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+
+    /**
+     * Gets the backoff before the first retry.
+     *
+     * @return The initial backoff.
+     */
+    public Duration getInitialBackoff() {
+        return initialBackoff;
+    }
+
+    /**
+     * Sets the backoff before the first retry.
+     * Each actual backoff is drawn at random between zero and the current backoff.
+     *
+     * @param initialBackoff The initial backoff.
+     */
+    public void setInitialBackoff(Duration initialBackoff) {
+        this.initialBackoff = initialBackoff;
+    }
+
+    /**
+     * Gets the upper bound of the backoff.
+     *
+     * @return The maximum backoff.
+     */
+    public Duration getMaxBackoff() {
+        return maxBackoff;
+    }
+
+    /**
+     * Sets the upper bound of the backoff.
+     *
+     * @param maxBackoff The maximum backoff.
+     */
+    public void setMaxBackoff(Duration maxBackoff) {
+        this.maxBackoff = maxBackoff;
+    }
+
+    /**
+     * Gets the factor applied to the backoff after each retry.
+     *
+     * @return The backoff multiplier.
+     */
+    public double getBackoffMultiplier() {
+        return backoffMultiplier;
+    }
+
+    /**
+     * Sets the factor applied to the backoff after each retry.
+     *
+     * @param backoffMultiplier The backoff multiplier.
+     */
+    public void setBackoffMultiplier(double backoffMultiplier) {
+        this.backoffMultiplier = backoffMultiplier;
+    }
+
+    /**
+     * Gets the status codes of the calls that are retried.
+     *
+     * @return The retryable status codes.
+     */
+    public Set<Status.Code> getRetryableStatusCodes() {
+        return retryableStatusCodes;
+    }
+
+    /**
+     * Sets the status codes of the calls that are retried, of which there must be at least one.
+     *
+     * @param retryableStatusCodes The retryable status codes.
+     */
+    public void setRetryableStatusCodes(Set<Status.Code> retryableStatusCodes) {
+        this.retryableStatusCodes = retryableStatusCodes;
+    }
+
+    /**
+     * Gets the size of the retry budget.
+     *
+     * @return The maximum number of tokens.
+     */
+    public int getMaxTokens() {
+        return maxTokens;
+    }
+
+    /**
+     * Sets the size of the retry budget.
+     * Each failed call takes one token, and retries stop while the bucket is at most half full.
+     *
+     * @param maxTokens The maximum number of tokens.
+     */
+    public void setMaxTokens(int maxTokens) {
+        this.maxTokens = maxTokens;
+    }
+
+    /**
+     * Gets the number of tokens given back to the retry budget by each successful call.
+     *
+     * @return The token ratio.
+     */
+    public double getTokenRatio() {
+        return tokenRatio;
+    }
+
+    /**
+     * Sets the number of tokens given back to the retry budget by each successful call.
+     *
+     * @param tokenRatio The token ratio.
+     */
+    public void setTokenRatio(double tokenRatio) {
+        this.tokenRatio = tokenRatio;
+    }
+}
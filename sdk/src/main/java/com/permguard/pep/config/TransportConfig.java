@@ -0,0 +1,131 @@
+/**
+ *   Copyright 2024 Nitro Agility S.r.l.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+  */
+
+package com.permguard.pep.config;
+
+/**
+ * Configuration of the Netty transport of the client's channels: the kind of event loop, its number of threads
+ * and the allocation of I/O buffers. The event loop group is shared by the channels of a client.
+ */
+public class TransportConfig {
+    private TransportType type;
+    private int eventLoopThreads;
+    private boolean directBuffers;
+    private boolean pooledAllocator;
+
+    /**
+     * Default constructor with default settings.
+     * Selects the epoll transport, falling back to NIO, with Netty's default number of event loop threads
+     * (twice the number of processors) and pooled direct buffers.
+     */
+    public TransportConfig() {
+        this.type = TransportType.EPOLL;
+        this.eventLoopThreads = 0;
+        this.directBuffers = true;
+        this.pooledAllocator = true;
+    }
+
+    /**
+     * Constructor with custom settings.
+     *
+     * @param type             The transport.
+     * @param eventLoopThreads The number of event loop threads, or 0 for Netty's default.
+     * @param directBuffers    True to allocate I/O buffers off-heap.
+     * @param pooledAllocator  True to recycle I/O buffers from a pool.
+     */
+    public TransportConfig(TransportType type, int eventLoopThreads, boolean directBuffers, boolean pooledAllocator) {
+        this.type = type;
+        this.eventLoopThreads = eventLoopThreads;
+        this.directBuffers = directBuffers;
+        this.pooledAllocator = pooledAllocator;
+    }
+
+    /**
+     * Gets the transport.
+     *
+     * @return The transport type.
+     */
+    public TransportType getType() {
+        return type;
+    }
+
+    /**
+     * Sets the transport. {@link TransportType#EPOLL} falls back to {@link TransportType#NIO} when the native
+     * library is not available.
+     *
+     * @param type The transport type.
+     */
+    public void setType(TransportType type) {
+        this.type = type;
+    }
+
+    /**
+     * Gets the number of event loop threads.
+     *
+     * @return The number of threads, 0 for Netty's default.
+     */
+    public int getEventLoopThreads() {
+        return eventLoopThreads;
+    }
+
+    /**
+     * Sets the number of event loop threads shared by the channels of the client.
+     *
+     * @param eventLoopThreads The number of threads, or 0 for Netty's default.
+     */
+    public void setEventLoopThreads(int eventLoopThreads) {
+        this.eventLoopThreads = eventLoopThreads;
+    }
+
+    /**
+     * Checks whether I/O buffers are allocated off-heap.
+     *
+     * @return True for direct buffers, false for heap buffers.
+     */
+    public boolean isDirectBuffers() {
+        return directBuffers;
+    }
+
+    /**
+     * Sets whether I/O buffers are allocated off-heap. Direct buffers avoid a copy on each socket read and write;
+     * heap buffers keep the memory under the control of the garbage collector.
+     *
+     * @param directBuffers True for direct buffers, false for heap buffers.
+     */
+    public void setDirectBuffers(boolean directBuffers) {
+        this.directBuffers = directBuffers;
+    }
+
+    /**
+     * Checks whether I/O buffers are recycled from a pool.
+     *
+     * @return True if the pooled allocator is used.
+     */
+    public boolean isPooledAllocator() {
+        return pooledAllocator;
+    }
+
+    /**
+     * Sets whether I/O buffers are recycled from a pool rather than allocated for each use.
+     *
+     * @param pooledAllocator True to use the pooled allocator.
+     */
+    public void setPooledAllocator(boolean pooledAllocator) {
+        this.pooledAllocator = pooledAllocator;
+    }
+}
@@ -0,0 +1,114 @@
+/**
+ *   Copyright 2024 Nitro Agility S.r.l.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+  */
+
+package com.permguard.pep.metrics;
+
+import io.grpc.Status;
+
+/**
+ * Receives the measurements of an {@code AZClient}.
+ * Every method has an empty default implementation, so that implementations only override what they record.
+ * Methods are called on the threads performing the checks and must be thread-safe and cheap.
+ */
+public interface AZMetrics {
+
+    /**
+     * Metrics that record nothing, used when no metrics are configured.
+     */
+    AZMetrics NOOP = new AZMetrics() {
+    };
+
+    /**
+     * Records the latency of a phase of a check.
+     *
+     * @param phase The phase.
+     * @param nanos The latency in nanoseconds.
+     */
+    default void recordLatency(CheckPhase phase, long nanos) {
+    }
+
+    /**
+     * Records the decision of a successful check.
+     *
+     * @param allowed True if the check was allowed.
+     */
+    default void recordDecision(boolean allowed) {
+    }
+
+    /**
+     * Records a failed check.
+     *
+     * @param code The gRPC status of the failure, {@code UNKNOWN} when it did not come from gRPC.
+     */
+    default void recordError(Status.Code code) {
+    }
+
+    /**
+     * Records the start of a check, to track the number of checks in flight.
+     */
+    default void checkStarted() {
+    }
+
+    /**
+     * Records the end of a check, successful or not.
+     */
+    default void checkFinished() {
+    }
+
+    /**
+     * Records the size of a message sent to the PDP.
+     *
+     * @param bytes The uncompressed size in bytes.
+     */
+    default void recordRequestSize(long bytes) {
+    }
+
+    /**
+     * Records the size of a message received from the PDP.
+     *
+     * @param bytes The uncompressed size in bytes.
+     */
+    default void recordResponseSize(long bytes) {
+    }
+
+    /**
+     * Records a lookup of the decision cache.
+     *
+     * @param hit True if the decision was found in the cache.
+     */
+    default void recordCacheLookup(boolean hit) {
+    }
+
+    /**
+     * Records a check that joined an identical in-flight call instead of sending its own.
+     */
+    default void recordCoalesced() {
+    }
+
+    /**
+     * Records a duplicate call sent by hedging.
+     */
+    default void recordHedge() {
+    }
+
+    /**
+     * Records a retry of a failed call by the retry policy.
+     */
+    default void recordRetry() {
+    }
+}
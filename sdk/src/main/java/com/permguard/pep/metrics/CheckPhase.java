@@ -0,0 +1,56 @@
+/**
+ *   Copyright 2024 Nitro Agility S.r.l.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+  */
+
+package com.permguard.pep.metrics;
+
+/**
+ * The phases of an authorization check whose latency is recorded.
+ */
+public enum CheckPhase {
+    /**
+     * Conversion of the request into the gRPC message.
+     */
+    MAP("map"),
+    /**
+     * Obtaining the gRPC response, from the PDP or a client-side shortcut such as the decision cache.
+     */
+    RPC("rpc"),
+    /**
+     * Conversion of the gRPC response into the SDK response.
+     */
+    UNMAP("unmap"),
+    /**
+     * The whole check, as seen by the caller.
+     */
+    TOTAL("total");
+
+    private final String tagValue;
+
+    CheckPhase(String tagValue) {
+        this.tagValue = tagValue;
+    }
+
+    /**
+     * Gets the lower-case name of the phase, used as a metric tag.
+     *
+     * @return The phase name.
+     */
+    public String getTagValue() {
+        return tagValue;
+    }
+}
@@ -0,0 +1,192 @@
+/**
+ *   Copyright 2024 Nitro Agility S.r.l.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+  */
+
+package com.permguard.pep.metrics;
+
+import io.grpc.Status;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link AZMetrics} publishing to a Micrometer {@link MeterRegistry}.
+ * Requires {@code io.micrometer:micrometer-core} on the classpath, which the SDK declares as an optional dependency.
+ *
+ * <ul>
+ *     <li>{@code permguard.check.duration} timer, tagged by {@code phase} ({@code map}, {@code rpc}, {@code unmap}, {@code total})</li>
+ *     <li>{@code permguard.check.decisions} counter, tagged by {@code decision} ({@code allow}, {@code deny})</li>
+ *     <li>{@code permguard.check.errors} counter, tagged by gRPC {@code status}</li>
+ *     <li>{@code permguard.check.in.flight} gauge</li>
+ *     <li>{@code permguard.check.payload.size} summary in bytes, tagged by {@code direction} ({@code request}, {@code response})</li>
+ *     <li>{@code permguard.cache.lookups} counter, tagged by {@code result} ({@code hit}, {@code miss})</li>
+ *     <li>{@code permguard.check.coalesced}, {@code permguard.check.hedges} and {@code permguard.check.retries} counters</li>
+ * </ul>
+ */
+public class MicrometerAZMetrics implements AZMetrics {
+    private final MeterRegistry registry;
+    private final Tags tags;
+    private final Map<CheckPhase, Timer> latencies = new EnumMap<>(CheckPhase.class);
+    private final Counter allowed;
+    private final Counter denied;
+    private final Map<Status.Code, Counter> errors = new ConcurrentHashMap<>();
+    private final AtomicLong inFlight = new AtomicLong();
+    private final DistributionSummary requestSizes;
+    private final DistributionSummary responseSizes;
+    private final Counter cacheHits;
+    private final Counter cacheMisses;
+    private final Counter coalesced;
+    private final Counter hedges;
+    private final Counter retries;
+
+    /**
+     * Constructs metrics registering their meters in the given registry.
+     *
+     * @param registry The meter registry.
+     */
+    public MicrometerAZMetrics(MeterRegistry registry) {
+        this(registry, Tags.empty());
+    }
+
+    /**
+     * Constructs metrics registering their meters in the given registry, with common tags
+     * telling apart several clients.
+     *
+     * @param registry The meter registry.
+     * @param tags     The tags added to every meter.
+     */
+    public MicrometerAZMetrics(MeterRegistry registry, Iterable<Tag> tags) {
+        this.registry = registry;
+        this.tags = Tags.of(tags);
+        for (CheckPhase phase : CheckPhase.values()) {
+            latencies.put(phase, Timer.builder("permguard.check.duration")
+                    .description("Latency of the phases of authorization checks")
+                    .tags(this.tags).tag("phase", phase.getTagValue())
+                    .publishPercentileHistogram()
+                    .register(registry));
+        }
+        this.allowed = decisions("allow");
+        this.denied = decisions("deny");
+        Gauge.builder("permguard.check.in.flight", inFlight, AtomicLong::get)
+                .description("Authorization checks in flight")
+                .tags(this.tags)
+                .register(registry);
+        this.requestSizes = payloadSize("request");
+        this.responseSizes = payloadSize("response");
+        this.cacheHits = cacheLookups("hit");
+        this.cacheMisses = cacheLookups("miss");
+        this.coalesced = Counter.builder("permguard.check.coalesced")
+                .description("Checks that joined an identical in-flight call")
+                .tags(this.tags).register(registry);
+        this.hedges = Counter.builder("permguard.check.hedges")
+                .description("Duplicate calls sent by hedging")
+                .tags(this.tags).register(registry);
+        this.retries = Counter.builder("permguard.check.retries")
+                .description("Retries made by the retry policy")
+                .tags(this.tags).register(registry);
+    }
+
+    private Counter decisions(String decision) {
+        return Counter.builder("permguard.check.decisions")
+                .description("Decisions of successful authorization checks")
+                .tags(tags).tag("decision", decision)
+                .register(registry);
+    }
+
+    private DistributionSummary payloadSize(String direction) {
+        return DistributionSummary.builder("permguard.check.payload.size")
+                .description("Uncompressed size of the messages exchanged with the PDP")
+                .baseUnit("bytes")
+                .tags(tags).tag("direction", direction)
+                .register(registry);
+    }
+
+    private Counter cacheLookups(String result) {
+        return Counter.builder("permguard.cache.lookups")
+                .description("Lookups of the decision cache")
+                .tags(tags).tag("result", result)
+                .register(registry);
+    }
+
+    @Override
+    public void recordLatency(CheckPhase phase, long nanos) {
+        latencies.get(phase).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordDecision(boolean allowed) {
+        (allowed ? this.allowed : denied).increment();
+    }
+
+    @Override
+    public void recordError(Status.Code code) {
+        errors.computeIfAbsent(code, c -> Counter.builder("permguard.check.errors")
+                .description("Failed authorization checks")
+                .tags(tags).tag("status", c.name())
+                .register(registry)).increment();
+    }
+
+    @Override
+    public void checkStarted() {
+        inFlight.incrementAndGet();
+    }
+
+    @Override
+    public void checkFinished() {
+        inFlight.decrementAndGet();
+    }
+
+    @Override
+    public void recordRequestSize(long bytes) {
+        requestSizes.record(bytes);
+    }
+
+    @Override
+    public void recordResponseSize(long bytes) {
+        responseSizes.record(bytes);
+    }
+
+    @Override
+    public void recordCacheLookup(boolean hit) {
+        (hit ? cacheHits : cacheMisses).increment();
+    }
+
+    @Override
+    public void recordCoalesced() {
+        coalesced.increment();
+    }
+
+    @Override
+    public void recordHedge() {
+        hedges.increment();
+    }
+
+    @Override
+    public void recordRetry() {
+        retries.increment();
+    }
+}
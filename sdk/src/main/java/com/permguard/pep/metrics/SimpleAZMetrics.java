@@ -0,0 +1,226 @@
+/**
+ *   Copyright 2024 Nitro Agility S.r.l.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+  */
+
+package com.permguard.pep.metrics;
+
+import io.grpc.Status;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Dependency-free {@link AZMetrics} keeping every measurement in memory, to be read through its getters
+ * or exported by the application.
+ */
+public class SimpleAZMetrics implements AZMetrics {
+    private final Map<CheckPhase, Histogram> latencies = new EnumMap<>(CheckPhase.class);
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder denied = new LongAdder();
+    private final AtomicLongArray errors = new AtomicLongArray(Status.Code.values().length);
+    private final AtomicLong inFlight = new AtomicLong();
+    private final Histogram requestSizes = new Histogram();
+    private final Histogram responseSizes = new Histogram();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder hedges = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+
+    /**
+     * Default constructor.
+     */
+    public SimpleAZMetrics() {
+        for (CheckPhase phase : CheckPhase.values()) {
+            latencies.put(phase, new Histogram());
+        }
+    }
+
+    @Override
+    public void recordLatency(CheckPhase phase, long nanos) {
+        latencies.get(phase).record(nanos);
+    }
+
+    @Override
+    public void recordDecision(boolean allowed) {
+        (allowed ? this.allowed : denied).increment();
+    }
+
+    @Override
+    public void recordError(Status.Code code) {
+        errors.incrementAndGet(code.ordinal());
+    }
+
+    @Override
+    public void checkStarted() {
+        inFlight.incrementAndGet();
+    }
+
+    @Override
+    public void checkFinished() {
+        inFlight.decrementAndGet();
+    }
+
+    @Override
+    public void recordRequestSize(long bytes) {
+        requestSizes.record(bytes);
+    }
+
+    @Override
+    public void recordResponseSize(long bytes) {
+        responseSizes.record(bytes);
+    }
+
+    @Override
+    public void recordCacheLookup(boolean hit) {
+        (hit ? cacheHits : cacheMisses).increment();
+    }
+
+    @Override
+    public void recordCoalesced() {
+        coalesced.increment();
+    }
+
+    @Override
+    public void recordHedge() {
+        hedges.increment();
+    }
+
+    @Override
+    public void recordRetry() {
+        retries.increment();
+    }
+
+    /**
+     * Gets the latency histogram of a phase of the checks.
+     *
+     * @param phase The phase.
+     * @return The latencies in nanoseconds.
+     */
+    public Histogram getLatency(CheckPhase phase) {
+        return latencies.get(phase);
+    }
+
+    /**
+     * Gets the number of allowed checks.
+     *
+     * @return The allowed count.
+     */
+    public long getAllowedCount() {
+        return allowed.sum();
+    }
+
+    /**
+     * Gets the number of denied checks.
+     *
+     * @return The denied count.
+     */
+    public long getDeniedCount() {
+        return denied.sum();
+    }
+
+    /**
+     * Gets the number of failed checks by gRPC status.
+     *
+     * @return The error counts of the statuses that occurred.
+     */
+    public Map<Status.Code, Long> getErrorCounts() {
+        Map<Status.Code, Long> counts = new EnumMap<>(Status.Code.class);
+        for (Status.Code code : Status.Code.values()) {
+            long count = errors.get(code.ordinal());
+            if (count > 0) {
+                counts.put(code, count);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Gets the number of checks in flight.
+     *
+     * @return The in-flight count.
+     */
+    public long getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Gets the size histogram of the messages sent to the PDP.
+     *
+     * @return The sizes in bytes.
+     */
+    public Histogram getRequestSizes() {
+        return requestSizes;
+    }
+
+    /**
+     * Gets the size histogram of the messages received from the PDP.
+     *
+     * @return The sizes in bytes.
+     */
+    public Histogram getResponseSizes() {
+        return responseSizes;
+    }
+
+    /**
+     * Gets the number of decisions found in the decision cache.
+     *
+     * @return The cache hit count.
+     */
+    public long getCacheHitCount() {
+        return cacheHits.sum();
+    }
+
+    /**
+     * Gets the number of decisions not found in the decision cache.
+     *
+     * @return The cache miss count.
+     */
+    public long getCacheMissCount() {
+        return cacheMisses.sum();
+    }
+
+    /**
+     * Gets the number of checks that joined an identical in-flight call.
+     *
+     * @return The coalesced count.
+     */
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    /**
+     * Gets the number of duplicate calls sent by hedging.
+     *
+     * @return The hedge count.
+     */
+    public long getHedgeCount() {
+        return hedges.sum();
+    }
+
+    /**
+     * Gets the number of retries made by the retry policy.
+     *
+     * @return The retry count.
+     */
+    public long getRetryCount() {
+        return retries.sum();
+    }
+}
@@ -18,6 +18,7 @@
 
 package com.permguard.pep.model.response;
 
+import java.util.BitSet;
 import java.util.List;
 
 /**
@@ -122,4 +123,41 @@ public class AZResponse {
     public void setEvaluations(List<EvaluationResponse> evaluations) {
         this.evaluations = evaluations;
     }
+
+    /**
+     * Gets the decisions of the evaluations, in the order of the request's evaluations.
+     *
+     * @return A bit set where bit i is set if evaluation i is allowed; see {@link #evaluationCount()} for its length.
+     */
+    public BitSet decisions() {
+        List<EvaluationResponse> results = getEvaluations();
+        BitSet decisions = new BitSet(results != null ? results.size() : 0);
+        if (results != null) {
+            for (int i = 0; i < results.size(); i++) {
+                if (results.get(i).isDecision()) {
+                    decisions.set(i);
+                }
+            }
+        }
+        return decisions;
+    }
+
+    /**
+     * Gets the number of allowed evaluations.
+     *
+     * @return The number of allowed evaluations.
+     */
+    public int allowedCount() {
+        return decisions().cardinality();
+    }
+
+    /**
+     * Gets the number of evaluations.
+     *
+     * @return The number of evaluations.
+     */
+    public int evaluationCount() {
+        List<EvaluationResponse> results = getEvaluations();
+        return results != null ? results.size() : 0;
+    }
 }
@@ -22,16 +22,48 @@ import com.permguard.pep.internal.proto.AuthorizationCheck;
 import com.permguard.pep.internal.proto.V1PDPServiceGrpc;
 import io.grpc.Server;
 import io.grpc.ServerBuilder;
+import io.grpc.netty.NettyServerBuilder;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerDomainSocketChannel;
+import io.netty.channel.unix.DomainSocketAddress;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * A simple gRPC server that simulates an authorization decision service.
  */
 public class AZServer {
 
+    private final Duration latency;
+    private ScheduledExecutorService scheduler;
+    private EventLoopGroup eventLoopGroup;
     private Server server;
 
+    /**
+     * Constructs a server answering immediately.
+     */
+    public AZServer() {
+        this(Duration.ZERO);
+    }
+
+    /**
+     * Constructs a server answering after a simulated decision latency.
+     * Pending answers are scheduled rather than holding a server thread, so any number of checks can wait at once.
+     *
+     * @param latency The simulated latency of each check.
+     */
+    public AZServer(Duration latency) {
+        this.latency = latency;
+    }
+
     /**
      * Starts the gRPC server on the specified port.
      *
@@ -39,20 +71,64 @@ public class AZServer {
      * @throws IOException If the server fails to start.
      */
     public void start(int port) throws IOException {
-        server = ServerBuilder.forPort(port)
-                .addService(new V1PDPServiceImpl())
-                .build()
-                .start();
+        start(ServerBuilder.forPort(port));
 
         System.out.println("✅ gRPC Server started on port " + port);
     }
 
+    /**
+     * Starts the gRPC server on a Unix domain socket, e.g. to serve clients on the same host with a
+     * {@code unix://} target. It requires the epoll transport and its native library.
+     * A file left at the path by a previous run is replaced.
+     *
+     * @param socketPath The path of the socket.
+     * @throws IOException           If the server fails to start.
+     * @throws IllegalStateException If the epoll transport is not available.
+     */
+    public void start(Path socketPath) throws IOException {
+        if (!isEpollAvailable()) {
+            throw new IllegalStateException("A Unix domain socket requires the epoll transport, "
+                    + "provided by io.netty:netty-transport-native-epoll with the native library of the platform");
+        }
+        Files.deleteIfExists(socketPath);
+        eventLoopGroup = EpollClasses.newEventLoopGroup();
+        start(EpollClasses.forDomainSocket(socketPath, eventLoopGroup));
+
+        System.out.println("✅ gRPC Server started on " + socketPath);
+    }
+
+    /**
+     * Starts the gRPC server on the given server builder, e.g. an in-process builder for tests and benchmarks.
+     *
+     * @param builder The server builder to start the server on.
+     * @throws IOException If the server fails to start.
+     */
+    public void start(ServerBuilder<?> builder) throws IOException {
+        if (!latency.isZero()) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "permguard-server-latency");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        server = builder
+                .addService(new V1PDPServiceImpl(latency, scheduler))
+                .build()
+                .start();
+    }
+
     /**
      * Stops the gRPC server.
      */
     public void stop() {
         if (server != null) {
             server.shutdown();
+            if (scheduler != null) {
+                scheduler.shutdown();
+            }
+            if (eventLoopGroup != null) {
+                eventLoopGroup.shutdownGracefully();
+            }
             System.out.println("⛔ gRPC Server stopped.");
         }
     }
@@ -70,19 +146,70 @@ public class AZServer {
      * Implementation of the gRPC authz server.
      */
     private static class V1PDPServiceImpl extends V1PDPServiceGrpc.V1PDPServiceImplBase {
+        private final Duration latency;
+        private final ScheduledExecutorService scheduler;
+
+        V1PDPServiceImpl(Duration latency, ScheduledExecutorService scheduler) {
+            this.latency = latency;
+            this.scheduler = scheduler;
+        }
 
         @Override
         public void authorizationCheck(AuthorizationCheck.AuthorizationCheckRequest request,
                                        io.grpc.stub.StreamObserver<AuthorizationCheck.AuthorizationCheckResponse> responseObserver) {
             boolean decision = request.getRequestID().hashCode() % 2 == 0; // Mock decision logic
 
-            AuthorizationCheck.AuthorizationCheckResponse response = AuthorizationCheck.AuthorizationCheckResponse.newBuilder()
+            AuthorizationCheck.AuthorizationCheckResponse.Builder responseBuilder = AuthorizationCheck.AuthorizationCheckResponse.newBuilder()
                     .setDecision(decision)
-                    .setRequestID(request.getRequestID())
-                    .build();
+                    .setRequestID(request.getRequestID());
+            for (AuthorizationCheck.EvaluationRequest evaluation : request.getEvaluationsList()) {
+                responseBuilder.addEvaluations(AuthorizationCheck.EvaluationResponse.newBuilder()
+                        .setDecision(evaluation.getRequestID().hashCode() % 2 == 0)
+                        .setRequestID(evaluation.getRequestID()));
+            }
+            AuthorizationCheck.AuthorizationCheckResponse response = responseBuilder.build();
+
+            if (scheduler == null) {
+                respond(responseObserver, response);
+            } else {
+                scheduler.schedule(() -> respond(responseObserver, response), latency.toNanos(), TimeUnit.NANOSECONDS);
+            }
+        }
 
+        private static void respond(io.grpc.stub.StreamObserver<AuthorizationCheck.AuthorizationCheckResponse> responseObserver,
+                                    AuthorizationCheck.AuthorizationCheckResponse response) {
             responseObserver.onNext(response);
             responseObserver.onCompleted();
         }
     }
+
+    private static boolean isEpollAvailable() {
+        try {
+            return EpollClasses.isAvailable();
+        } catch (LinkageError e) {
+            // netty-transport-native-epoll is not on the classpath
+            return false;
+        }
+    }
+
+    /**
+     * Isolates the references to the optional epoll classes, which are only loaded when a domain socket is requested.
+     */
+    private static final class EpollClasses {
+
+        static boolean isAvailable() {
+            return Epoll.isAvailable();
+        }
+
+        static EventLoopGroup newEventLoopGroup() {
+            return new EpollEventLoopGroup(1);
+        }
+
+        static NettyServerBuilder forDomainSocket(Path socketPath, EventLoopGroup eventLoopGroup) {
+            return NettyServerBuilder.forAddress(new DomainSocketAddress(socketPath.toFile()))
+                    .channelType(EpollServerDomainSocketChannel.class)
+                    .bossEventLoopGroup(eventLoopGroup)
+                    .workerEventLoopGroup(eventLoopGroup);
+        }
+    }
 }
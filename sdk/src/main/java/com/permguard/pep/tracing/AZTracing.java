@@ -0,0 +1,66 @@
+/**
+ *   Copyright 2024 Nitro Agility S.r.l.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+  */
+
+package com.permguard.pep.tracing;
+
+import com.permguard.pep.model.request.AZRequest;
+import io.grpc.ClientInterceptor;
+
+/**
+ * Traces the authorization checks of an {@code AZClient}.
+ * Every method has a default implementation that traces nothing.
+ */
+public interface AZTracing {
+
+    /**
+     * Tracing that records nothing, used when no tracing is configured.
+     */
+    AZTracing NOOP = new AZTracing() {
+    };
+
+    /**
+     * Starts the span of a whole check.
+     *
+     * @param request The request being checked.
+     * @return The span of the check.
+     */
+    default TraceSpan startCheck(AZRequest request) {
+        return TraceSpan.NOOP;
+    }
+
+    /**
+     * Starts the span of a phase of a check, such as the mapping of the request.
+     *
+     * @param parent The span of the check.
+     * @param name   The name of the phase span.
+     * @return The span of the phase.
+     */
+    default TraceSpan startPhase(TraceSpan parent, String name) {
+        return TraceSpan.NOOP;
+    }
+
+    /**
+     * Gets the interceptor tracing the gRPC calls to the PDP, installed on the client's channels.
+     * Calls started while a check span is current are its children.
+     *
+     * @return The interceptor, or null if calls are not traced.
+     */
+    default ClientInterceptor interceptor() {
+        return null;
+    }
+}
@@ -0,0 +1,42 @@
+/**
+ *   Copyright 2024 Nitro Agility S.r.l.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+  */
+
+package com.permguard.pep.tracing;
+
+import com.permguard.pep.model.request.AZRequest;
+
+/**
+ * A request sent to the PDP already encoded, without a generated protobuf message, as with direct marshalling.
+ * The tracing interceptor reads the request attributes of a client span from it.
+ */
+public interface EncodedAZRequest {
+
+    /**
+     * Gets the request that was encoded.
+     *
+     * @return The request.
+     */
+    AZRequest request();
+
+    /**
+     * Gets the size of the encoded request.
+     *
+     * @return The size in bytes.
+     */
+    int size();
+}
@@ -0,0 +1,225 @@
+/**
+ *   Copyright 2024 Nitro Agility S.r.l.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+  */
+
+package com.permguard.pep.tracing;
+
+import com.permguard.pep.internal.proto.AuthorizationCheck;
+import com.permguard.pep.model.request.AZModel;
+import com.permguard.pep.model.request.AZRequest;
+import com.permguard.pep.model.response.AZResponse;
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.ForwardingClientCall;
+import io.grpc.ForwardingClientCallListener;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanBuilder;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.propagation.TextMapPropagator;
+import io.opentelemetry.context.propagation.TextMapSetter;
+
+import java.util.List;
+
+/**
+ * {@link AZTracing} recording OpenTelemetry spans.
+ * Requires {@code io.opentelemetry:opentelemetry-api} on the classpath, which the SDK declares as an optional dependency.
+ *
+ * <p>Each check gets a {@code permguard.check} span with {@code permguard.map.request} and {@code permguard.map.response}
+ * children for the mapping, and each gRPC call a client span named after the method, whose trace context is propagated
+ * to the PDP in the gRPC metadata (W3C {@code traceparent} by default). Calls sent by the batch dispatcher or by hedging
+ * run outside the caller's thread and start their own traces.
+ */
+public class OpenTelemetryAZTracing implements AZTracing {
+    private static final String INSTRUMENTATION_NAME = "com.permguard.pep";
+
+    static final AttributeKey<Long> ZONE_ID = AttributeKey.longKey("permguard.zone_id");
+    static final AttributeKey<String> POLICY_STORE_ID = AttributeKey.stringKey("permguard.policy_store_id");
+    static final AttributeKey<Long> EVALUATION_COUNT = AttributeKey.longKey("permguard.evaluation_count");
+    static final AttributeKey<Boolean> DECISION = AttributeKey.booleanKey("permguard.decision");
+    static final AttributeKey<Long> REQUEST_SIZE = AttributeKey.longKey("permguard.request_size");
+    static final AttributeKey<Long> RESPONSE_SIZE = AttributeKey.longKey("permguard.response_size");
+    static final AttributeKey<String> RPC_SYSTEM = AttributeKey.stringKey("rpc.system");
+    static final AttributeKey<String> RPC_SERVICE = AttributeKey.stringKey("rpc.service");
+    static final AttributeKey<String> RPC_METHOD = AttributeKey.stringKey("rpc.method");
+    static final AttributeKey<Long> RPC_GRPC_STATUS_CODE = AttributeKey.longKey("rpc.grpc.status_code");
+
+    private static final TextMapSetter<Metadata> METADATA_SETTER =
+            (metadata, key, value) -> metadata.put(Metadata.Key.of(key, Metadata.ASCII_STRING_MARSHALLER), value);
+
+    private final Tracer tracer;
+    private final TextMapPropagator propagator;
+    private final ClientInterceptor interceptor = new TracingInterceptor();
+
+    /**
+     * Constructs tracing with the given OpenTelemetry instance, propagating the W3C trace context.
+     *
+     * @param openTelemetry The OpenTelemetry instance.
+     */
+    public OpenTelemetryAZTracing(OpenTelemetry openTelemetry) {
+        this(openTelemetry, W3CTraceContextPropagator.getInstance());
+    }
+
+    /**
+     * Constructs tracing with the given OpenTelemetry instance and propagator.
+     *
+     * @param openTelemetry The OpenTelemetry instance.
+     * @param propagator    The propagator injecting the trace context into the gRPC metadata.
+     */
+    public OpenTelemetryAZTracing(OpenTelemetry openTelemetry, TextMapPropagator propagator) {
+        this.tracer = openTelemetry.getTracer(INSTRUMENTATION_NAME);
+        this.propagator = propagator;
+    }
+
+    @Override
+    public TraceSpan startCheck(AZRequest request) {
+        SpanBuilder builder = tracer.spanBuilder("permguard.check");
+        AZModel model = request.getAuthorizationModel();
+        if (model != null) {
+            builder.setAttribute(ZONE_ID, model.getZoneId());
+            if (model.getPolicyStore() != null && model.getPolicyStore().getId() != null) {
+                builder.setAttribute(POLICY_STORE_ID, model.getPolicyStore().getId());
+            }
+        }
+        builder.setAttribute(EVALUATION_COUNT, request.getEvaluations() != null ? (long) request.getEvaluations().size() : 0L);
+        return new OpenTelemetrySpan(builder.startSpan());
+    }
+
+    @Override
+    public TraceSpan startPhase(TraceSpan parent, String name) {
+        Context context = parent instanceof OpenTelemetrySpan span ? Context.current().with(span.span) : Context.current();
+        return new OpenTelemetrySpan(tracer.spanBuilder(name).setParent(context).startSpan());
+    }
+
+    @Override
+    public ClientInterceptor interceptor() {
+        return interceptor;
+    }
+
+    /**
+     * A {@link TraceSpan} backed by an OpenTelemetry span.
+     */
+    private static final class OpenTelemetrySpan implements TraceSpan {
+        private final Span span;
+
+        private OpenTelemetrySpan(Span span) {
+            this.span = span;
+        }
+
+        @Override
+        public Scope makeCurrent() {
+            return span.makeCurrent()::close;
+        }
+
+        @Override
+        public void setDecision(boolean allowed) {
+            span.setAttribute(DECISION, allowed);
+        }
+
+        @Override
+        public void recordError(Throwable error) {
+            span.recordException(error);
+            span.setStatus(StatusCode.ERROR, error.getMessage() != null ? error.getMessage() : "");
+        }
+
+        @Override
+        public void end() {
+            span.end();
+        }
+    }
+
+    /**
+     * Records a client span per gRPC call and injects its context into the request metadata.
+     */
+    private class TracingInterceptor implements ClientInterceptor {
+
+        @Override
+        public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(MethodDescriptor<ReqT, RespT> method, CallOptions callOptions, Channel next) {
+            // The span starts with the call rather than here, so that a call that is never started leaks no span
+            Context parent = Context.current();
+            return new ForwardingClientCall.SimpleForwardingClientCall<>(next.newCall(method, callOptions)) {
+                private Span span;
+
+                @Override
+                public void start(Listener<RespT> responseListener, Metadata headers) {
+                    span = tracer.spanBuilder(method.getFullMethodName())
+                            .setParent(parent)
+                            .setSpanKind(SpanKind.CLIENT)
+                            .setAttribute(RPC_SYSTEM, "grpc")
+                            .setAttribute(RPC_SERVICE, method.getServiceName())
+                            .setAttribute(RPC_METHOD, method.getBareMethodName())
+                            .startSpan();
+                    propagator.inject(parent.with(span), headers, METADATA_SETTER);
+                    super.start(new ForwardingClientCallListener.SimpleForwardingClientCallListener<>(responseListener) {
+                        @Override
+                        public void onMessage(RespT message) {
+                            if (message instanceof AuthorizationCheck.AuthorizationCheckResponse response) {
+                                span.setAttribute(DECISION, response.getDecision());
+                                span.setAttribute(RESPONSE_SIZE, (long) response.getSerializedSize());
+                            } else if (message instanceof AZResponse response) {
+                                span.setAttribute(DECISION, response.isDecision());
+                            }
+                            super.onMessage(message);
+                        }
+
+                        @Override
+                        public void onClose(Status status, Metadata trailers) {
+                            span.setAttribute(RPC_GRPC_STATUS_CODE, (long) status.getCode().value());
+                            if (!status.isOk()) {
+                                span.setStatus(StatusCode.ERROR, status.getCode().name());
+                            }
+                            span.end();
+                            super.onClose(status, trailers);
+                        }
+                    }, headers);
+                }
+
+                @Override
+                public void sendMessage(ReqT message) {
+                    if (message instanceof AuthorizationCheck.AuthorizationCheckRequest request) {
+                        span.setAttribute(ZONE_ID, request.getAuthorizationModel().getZoneID());
+                        span.setAttribute(POLICY_STORE_ID, request.getAuthorizationModel().getPolicyStore().getID());
+                        span.setAttribute(EVALUATION_COUNT, (long) request.getEvaluationsCount());
+                        span.setAttribute(REQUEST_SIZE, (long) request.getSerializedSize());
+                    } else if (message instanceof EncodedAZRequest encoded) {
+                        AZModel model = encoded.request().getAuthorizationModel();
+                        if (model != null) {
+                            span.setAttribute(ZONE_ID, model.getZoneId());
+                            if (model.getPolicyStore() != null && model.getPolicyStore().getId() != null) {
+                                span.setAttribute(POLICY_STORE_ID, model.getPolicyStore().getId());
+                            }
+                        }
+                        List<?> evaluations = encoded.request().getEvaluations();
+                        span.setAttribute(EVALUATION_COUNT, evaluations != null ? (long) evaluations.size() : 0L);
+                        span.setAttribute(REQUEST_SIZE, (long) encoded.size());
+                    }
+                    super.sendMessage(message);
+                }
+            };
+        }
+    }
+}
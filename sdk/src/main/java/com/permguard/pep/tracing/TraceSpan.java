@@ -0,0 +1,75 @@
+/**
+ *   Copyright 2024 Nitro Agility S.r.l.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+  */
+
+package com.permguard.pep.tracing;
+
+/**
+ * A span of an authorization check, or of one of its phases.
+ */
+public interface TraceSpan {
+
+    /**
+     * A span that records nothing.
+     */
+    TraceSpan NOOP = new TraceSpan() {
+    };
+
+    /**
+     * A scope in which a span is current, closed on the thread that opened it.
+     */
+    interface Scope extends AutoCloseable {
+
+        /**
+         * Restores the span that was current before the scope was opened.
+         */
+        @Override
+        void close();
+    }
+
+    /**
+     * Makes the span current on the calling thread, so that calls started in the scope are its children.
+     *
+     * @return The scope to close.
+     */
+    default Scope makeCurrent() {
+        return () -> {
+        };
+    }
+
+    /**
+     * Records the decision of the check.
+     *
+     * @param allowed True if the check was allowed.
+     */
+    default void setDecision(boolean allowed) {
+    }
+
+    /**
+     * Marks the span as failed.
+     *
+     * @param error The failure.
+     */
+    default void recordError(Throwable error) {
+    }
+
+    /**
+     * Ends the span.
+     */
+    default void end() {
+    }
+}
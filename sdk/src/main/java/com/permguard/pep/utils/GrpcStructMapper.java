@@ -19,14 +19,26 @@
 package com.permguard.pep.utils;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.protobuf.ListValue;
+import com.google.protobuf.NullValue;
 import com.google.protobuf.Struct;
-import com.google.protobuf.util.JsonFormat;
+import com.google.protobuf.Value;
 
-import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
  * Utility for converting between gRPC Struct and Java Map.
+ * <p>
+ * Values are walked recursively into {@link Struct}/{@link Value}/{@link ListValue} builders
+ * without going through an intermediate JSON document. The produced values match the JSON
+ * encoding: every {@link Number} becomes a double, {@code null} becomes {@code NULL_VALUE},
+ * and any other object is converted the way Jackson would serialize it. Since JSON has no NaN or infinity,
+ * non-finite doubles and floats become the strings {@code "NaN"}, {@code "Infinity"} and {@code "-Infinity"}.
  */
 public class GrpcStructMapper {
 
@@ -39,12 +51,13 @@ public class GrpcStructMapper {
      * @return A Protobuf Struct representation of the map.
      */
     public static Struct toGrpcStruct(Map<String, Object> map) {
+        if (map == null) {
+            throw new RuntimeException("❌ Failed to convert Map to Struct",
+                    new IllegalArgumentException("Map must not be null"));
+        }
         try {
-            String json = objectMapper.writeValueAsString(map);
-            Struct.Builder structBuilder = Struct.newBuilder();
-            JsonFormat.parser().merge(json, structBuilder);
-            return structBuilder.build();
-        } catch (IOException e) {
+            return toStruct(map);
+        } catch (IllegalArgumentException e) {
             throw new RuntimeException("❌ Failed to convert Map to Struct", e);
         }
     }
@@ -56,11 +69,124 @@ public class GrpcStructMapper {
      * @return A Java Map representation of the Struct.
      */
     public static Map<String, Object> fromGrpcStruct(Struct struct) {
-        try {
-            String json = JsonFormat.printer().print(struct);
-            return objectMapper.readValue(json, Map.class);
-        } catch (IOException e) {
-            throw new RuntimeException("❌ Failed to convert Struct to Map", e);
+        if (struct == null) {
+            throw new RuntimeException("❌ Failed to convert Struct to Map",
+                    new IllegalArgumentException("Struct must not be null"));
+        }
+        return fromStruct(struct);
+    }
+
+    /**
+     * Converts a Java object to a Protobuf Value.
+     *
+     * @param value The Java object to convert (Map, List, Number, Boolean, String or null).
+     * @return A Protobuf Value representation of the object.
+     */
+    public static Value toGrpcValue(Object value) {
+        if (value == null) {
+            return Value.newBuilder().setNullValue(NullValue.NULL_VALUE).build();
+        }
+        if (value instanceof String s) {
+            return Value.newBuilder().setStringValue(s).build();
+        }
+        if (value instanceof Boolean b) {
+            return Value.newBuilder().setBoolValue(b).build();
+        }
+        if (value instanceof Number n) {
+            if ((n instanceof Double || n instanceof Float) && !Double.isFinite(n.doubleValue())) {
+                // Jackson writes them as strings
+                return Value.newBuilder().setStringValue(Double.toString(n.doubleValue())).build();
+            }
+            return Value.newBuilder().setNumberValue(toDouble(n)).build();
+        }
+        if (value instanceof Map<?, ?> m) {
+            return Value.newBuilder().setStructValue(toStruct(m)).build();
+        }
+        if (value instanceof Iterable<?> it) {
+            return Value.newBuilder().setListValue(toListValue(it)).build();
+        }
+        if (value instanceof Object[] array) {
+            // Arrays.asList, unlike List.of, accepts null elements
+            return Value.newBuilder().setListValue(toListValue(Arrays.asList(array))).build();
+        }
+        if (value instanceof Character c) {
+            return Value.newBuilder().setStringValue(c.toString()).build();
+        }
+        if (value instanceof byte[] bytes) {
+            // Jackson writes binary data as a base64 string
+            return Value.newBuilder().setStringValue(Base64.getEncoder().encodeToString(bytes)).build();
+        }
+        // Anything else (enums, dates, POJOs, primitive arrays) follows the Jackson representation
+        Object converted = objectMapper.convertValue(value, Object.class);
+        if (converted == null || converted instanceof String || converted instanceof Boolean || converted instanceof Number
+                || converted instanceof Map || converted instanceof List) {
+            return toGrpcValue(converted);
+        }
+        // Jackson kept an embedded object rather than a JSON value, which converting again would not change
+        return Value.newBuilder().setStringValue(objectMapper.valueToTree(value).asText()).build();
+    }
+
+    /**
+     * Converts a Protobuf Value to a Java object.
+     *
+     * @param value The Protobuf Value to convert.
+     * @return A Map, List, Double, Boolean, String or null.
+     */
+    public static Object fromGrpcValue(Value value) {
+        switch (value.getKindCase()) {
+            case STRUCT_VALUE:
+                return fromStruct(value.getStructValue());
+            case LIST_VALUE:
+                List<Object> list = new ArrayList<>(value.getListValue().getValuesCount());
+                for (Value item : value.getListValue().getValuesList()) {
+                    list.add(fromGrpcValue(item));
+                }
+                return list;
+            case NUMBER_VALUE:
+                return value.getNumberValue();
+            case STRING_VALUE:
+                return value.getStringValue();
+            case BOOL_VALUE:
+                return value.getBoolValue();
+            default:
+                return null;
+        }
+    }
+
+    /** CONVERSION HELPERS **/
+
+    private static Struct toStruct(Map<?, ?> map) {
+        Struct.Builder builder = Struct.newBuilder();
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            if (entry.getKey() == null) {
+                throw new IllegalArgumentException("Null keys are not supported in a Struct");
+            }
+            builder.putFields(entry.getKey().toString(), toGrpcValue(entry.getValue()));
+        }
+        return builder.build();
+    }
+
+    private static ListValue toListValue(Iterable<?> values) {
+        ListValue.Builder builder = ListValue.newBuilder();
+        for (Object item : values) {
+            builder.addValues(toGrpcValue(item));
+        }
+        return builder.build();
+    }
+
+    private static Map<String, Object> fromStruct(Struct struct) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (Map.Entry<String, Value> entry : struct.getFieldsMap().entrySet()) {
+            map.put(entry.getKey(), fromGrpcValue(entry.getValue()));
+        }
+        return map;
+    }
+
+    private static double toDouble(Number number) {
+        // Floats are written in their shortest decimal form by Jackson, e.g. 0.1f stays 0.1
+        if (number instanceof Float f) {
+            return Double.parseDouble(f.toString());
         }
+        return number.doubleValue();
     }
 }
@@ -0,0 +1,88 @@
+/**
+ *   Copyright 2024 Nitro Agility S.r.l.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+  */
+
+package com.permguard.pep.client;
+
+import com.permguard.pep.builder.AZAtomicRequestBuilder;
+import com.permguard.pep.builder.PrincipalBuilder;
+import com.permguard.pep.config.AZConfig;
+import com.permguard.pep.exception.AuthorizationException;
+import com.permguard.pep.model.request.AZRequest;
+import com.permguard.pep.model.response.AZResponse;
+import com.permguard.pep.server.AZServer;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks that asynchronous checks complete with the PDP's response, or exceptionally with an {@link AuthorizationException}.
+ */
+class AsyncCheckTest {
+
+    @Test
+    void completesWithTheResponse() throws Exception {
+        String name = InProcessServerBuilder.generateName();
+        AZServer server = new AZServer(Duration.ofMillis(100));
+        server.start(InProcessServerBuilder.forName(name).directExecutor());
+        AZClient client = new AZClient(new AZConfig(), InProcessChannelBuilder.forName(name).directExecutor().build());
+        try {
+            CompletableFuture<AZResponse> pending = client.checkAsync(request("async"));
+
+            // The server answers after its latency, so the call returns before the response
+            assertFalse(pending.isDone());
+            AZResponse response = pending.get(5, TimeUnit.SECONDS);
+            assertEquals("async", response.getRequestId());
+            assertEquals(client.check(request("async")).isDecision(), response.isDecision());
+        } finally {
+            client.shutdown();
+            server.stop();
+        }
+    }
+
+    @Test
+    void failsWithAuthorizationException() {
+        // No server listens on this name, so the call fails with UNAVAILABLE
+        String name = InProcessServerBuilder.generateName();
+        AZClient client = new AZClient(new AZConfig(), InProcessChannelBuilder.forName(name).directExecutor().build());
+        try {
+            CompletableFuture<AZResponse> pending = client.checkAsync(request("unavailable"));
+
+            ExecutionException failure = assertThrows(ExecutionException.class, () -> pending.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(AuthorizationException.class, failure.getCause());
+        } finally {
+            client.shutdown();
+        }
+    }
+
+    private static AZRequest request(String id) {
+        return new AZAtomicRequestBuilder(1L, "store", "subject", "Resource", "Action")
+                .withRequestId(id)
+                .withPrincipal(new PrincipalBuilder("principal").build())
+                .build();
+    }
+}
@@ -0,0 +1,110 @@
+/**
+ *   Copyright 2024 Nitro Agility S.r.l.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+  */
+
+package com.permguard.pep.client;
+
+import com.permguard.pep.builder.AZAtomicRequestBuilder;
+import com.permguard.pep.builder.PrincipalBuilder;
+import com.permguard.pep.config.AZConfig;
+import com.permguard.pep.config.BatchingConfig;
+import com.permguard.pep.exception.AuthorizationException;
+import com.permguard.pep.exception.AuthorizationTimeoutException;
+import com.permguard.pep.model.request.AZRequest;
+import com.permguard.pep.model.response.AZResponse;
+import com.permguard.pep.server.AZServer;
+import io.grpc.Status;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks that batched checks keep their own deadlines and that checks submitted after shutdown fail.
+ */
+class BatchDispatcherTest {
+
+    private static final Duration LATENCY = Duration.ofMillis(300);
+
+    private AZServer server;
+    private AZClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        String name = InProcessServerBuilder.generateName();
+        server = new AZServer(LATENCY);
+        server.start(InProcessServerBuilder.forName(name).directExecutor());
+        AZConfig config = new AZConfig();
+        config.setBatching(new BatchingConfig(Duration.ofMillis(50), 16));
+        client = new AZClient(config, InProcessChannelBuilder.forName(name).directExecutor().build());
+        // Load the classes on the check path, which could otherwise take longer than the deadlines under test
+        client.check(request("warm-up"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.shutdown();
+        server.stop();
+    }
+
+    @Test
+    void checksTimeOutOnTheirOwnDeadlines() throws Exception {
+        CompletableFuture<AZResponse> shortCheck = client.checkAsync(request("short"), Duration.ofMillis(150));
+        CompletableFuture<AZResponse> longCheck = client.checkAsync(request("long"), Duration.ofSeconds(5));
+
+        assertEquals("long", longCheck.get(5, TimeUnit.SECONDS).getRequestId());
+        ExecutionException failure = assertThrows(ExecutionException.class, shortCheck::get);
+        assertInstanceOf(AuthorizationTimeoutException.class, failure.getCause());
+    }
+
+    @Test
+    void checksWithoutDeadlineOutliveBoundedChecks() throws Exception {
+        CompletableFuture<AZResponse> shortCheck = client.checkAsync(request("short"), Duration.ofMillis(150));
+        CompletableFuture<AZResponse> unbounded = client.checkAsync(request("unbounded"), null);
+
+        assertEquals("unbounded", unbounded.get(5, TimeUnit.SECONDS).getRequestId());
+        ExecutionException failure = assertThrows(ExecutionException.class, shortCheck::get);
+        assertInstanceOf(AuthorizationTimeoutException.class, failure.getCause());
+    }
+
+    @Test
+    void checksFailAfterShutdown() {
+        client.shutdown();
+
+        ExecutionException failure = assertThrows(ExecutionException.class,
+                () -> client.checkAsync(request("late")).get(5, TimeUnit.SECONDS));
+        AuthorizationException exception = assertInstanceOf(AuthorizationException.class, failure.getCause());
+        assertEquals(Status.Code.UNAVAILABLE, Status.fromThrowable(exception.getCause()).getCode());
+    }
+
+    private static AZRequest request(String requestId) {
+        return new AZAtomicRequestBuilder(1L, "store", "subject", "Resource", "Action")
+                .withRequestId(requestId)
+                .withPrincipal(new PrincipalBuilder("principal").build())
+                .build();
+    }
+}
@@ -0,0 +1,96 @@
+/**
+ *   Copyright 2024 Nitro Agility S.r.l.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+  */
+
+package com.permguard.pep.client;
+
+import com.permguard.pep.exception.AuthorizationException;
+import com.permguard.pep.model.request.AZRequest;
+import com.permguard.pep.model.request.Evaluation;
+import com.permguard.pep.model.response.AZResponse;
+import com.permguard.pep.model.response.EvaluationResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks how a bulk check merges its chunks and handles their failures.
+ */
+class BulkCheckTest {
+
+    @Test
+    void mergesChunksInOrder() throws Exception {
+        AZResponse response = new BulkCheck(null, evaluations(5), 2, request -> answer(request.getEvaluations().size()), null)
+                .start(2).get(5, TimeUnit.SECONDS);
+
+        assertEquals(5, response.getEvaluations().size());
+        assertEquals(5, response.decisions().cardinality());
+    }
+
+    @Test
+    void failsOnChunkWithMissingEvaluations() {
+        CompletableFuture<AZResponse> result = new BulkCheck(null, evaluations(4), 2,
+                request -> answer(request.getEvaluations().size() - 1), null).start(1);
+
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(AuthorizationException.class, failure.getCause());
+    }
+
+    @Test
+    void cancelsChunksInFlightOnFailure() {
+        List<CompletableFuture<AZResponse>> chunks = Collections.synchronizedList(new ArrayList<>());
+        CompletableFuture<AZResponse> result = new BulkCheck(null, evaluations(6), 2, request -> {
+            CompletableFuture<AZResponse> chunk = new CompletableFuture<>();
+            chunks.add(chunk);
+            return chunk;
+        }, null).start(3);
+
+        assertEquals(3, chunks.size());
+        chunks.get(1).completeExceptionally(new IllegalStateException("Chunk failed"));
+
+        assertTrue(result.isCompletedExceptionally());
+        assertTrue(chunks.get(0).isCancelled());
+        assertTrue(chunks.get(2).isCancelled());
+        assertEquals(3, chunks.size());
+    }
+
+    private static List<Evaluation> evaluations(int count) {
+        List<Evaluation> evaluations = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            evaluations.add(new Evaluation());
+        }
+        return evaluations;
+    }
+
+    private static CompletableFuture<AZResponse> answer(int count) {
+        List<EvaluationResponse> evaluations = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            evaluations.add(new EvaluationResponse(true, null, null));
+        }
+        return CompletableFuture.completedFuture(new AZResponse(true, null, null, evaluations));
+    }
+}
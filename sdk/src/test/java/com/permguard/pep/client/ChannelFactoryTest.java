@@ -0,0 +1,71 @@
+/**
+ *   Copyright 2024 Nitro Agility S.r.l.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+  */
+
+package com.permguard.pep.client;
+
+import com.permguard.pep.config.AZConfig;
+import com.permguard.pep.config.RetryConfig;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that an invalid retry configuration is reported with the setting at fault.
+ */
+class ChannelFactoryTest {
+
+    @Test
+    void acceptsDefaultRetries() {
+        assertDoesNotThrow(() -> createClient(retry -> { }).shutdown());
+    }
+
+    @Test
+    void treatsSingleAttemptAsDisabledRetries() {
+        assertDoesNotThrow(() -> createClient(retry -> retry.setMaxAttempts(1)).shutdown());
+    }
+
+    @Test
+    void rejectsInvalidRetrySettings() {
+        assertRejected("maxAttempts", retry -> retry.setMaxAttempts(0));
+        assertRejected("retryableStatusCodes", retry -> retry.setRetryableStatusCodes(Set.of()));
+        assertRejected("initialBackoff", retry -> retry.setInitialBackoff(Duration.ZERO));
+        assertRejected("maxBackoff", retry -> retry.setMaxBackoff(null));
+        assertRejected("backoffMultiplier", retry -> retry.setBackoffMultiplier(0));
+        assertRejected("maxTokens", retry -> retry.setMaxTokens(0));
+        assertRejected("tokenRatio", retry -> retry.setTokenRatio(-1));
+    }
+
+    private static void assertRejected(String setting, Consumer<RetryConfig> change) {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> createClient(change));
+        assertTrue(e.getMessage().contains(setting), e.getMessage());
+    }
+
+    private static AZClient createClient(Consumer<RetryConfig> change) {
+        RetryConfig retry = new RetryConfig();
+        change.accept(retry);
+        AZConfig config = new AZConfig("localhost", 9094, true);
+        config.setRetry(retry);
+        return new AZClient(config);
+    }
+}
@@ -0,0 +1,128 @@
+/**
+ *   Copyright 2024 Nitro Agility S.r.l.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+  */
+
+package com.permguard.pep.client;
+
+import com.permguard.pep.config.ChannelSelectionPolicy;
+import com.permguard.pep.internal.proto.AuthorizationCheck;
+import com.permguard.pep.internal.proto.V1PDPServiceGrpc;
+import com.permguard.pep.server.AZServer;
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.ConnectivityState;
+import io.grpc.ManagedChannel;
+import io.grpc.MethodDescriptor;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that the channel pool spreads calls over its channels and skips a channel that cannot connect.
+ */
+class ChannelPoolTest {
+
+    private String name;
+    private AZServer server;
+    private final List<ManagedChannel> channels = new ArrayList<>();
+    private final List<AtomicInteger> calls = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        name = InProcessServerBuilder.generateName();
+        server = new AZServer();
+        server.start(InProcessServerBuilder.forName(name).directExecutor());
+    }
+
+    @AfterEach
+    void tearDown() {
+        channels.forEach(ManagedChannel::shutdownNow);
+        server.stop();
+    }
+
+    @ParameterizedTest
+    @EnumSource(ChannelSelectionPolicy.class)
+    void spreadsCallsOverTheChannels(ChannelSelectionPolicy policy) {
+        ChannelPool pool = new ChannelPool(List.of(channel(name), channel(name), channel(name)), policy);
+
+        for (int i = 0; i < 9; i++) {
+            check(pool);
+        }
+
+        // Sequential calls leave no call outstanding, so both policies rotate over the channels
+        for (AtomicInteger count : calls) {
+            assertEquals(3, count.get());
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(ChannelSelectionPolicy.class)
+    void skipsChannelsThatCannotConnect(ChannelSelectionPolicy policy) throws InterruptedException {
+        ManagedChannel broken = channel(InProcessServerBuilder.generateName());
+        ChannelPool pool = new ChannelPool(List.of(broken, channel(name), channel(name)), policy);
+        awaitTransientFailure(broken);
+
+        for (int i = 0; i < 6; i++) {
+            check(pool);
+        }
+
+        assertEquals(0, calls.get(0).get());
+        assertEquals(6, calls.get(1).get() + calls.get(2).get());
+    }
+
+    private ManagedChannel channel(String target) {
+        AtomicInteger count = new AtomicInteger();
+        ManagedChannel channel = InProcessChannelBuilder.forName(target).directExecutor()
+                .intercept(new ClientInterceptor() {
+                    @Override
+                    public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(MethodDescriptor<ReqT, RespT> method,
+                                                                               CallOptions callOptions, Channel next) {
+                        count.incrementAndGet();
+                        return next.newCall(method, callOptions);
+                    }
+                })
+                .build();
+        channels.add(channel);
+        calls.add(count);
+        return channel;
+    }
+
+    private static void check(Channel channel) {
+        V1PDPServiceGrpc.newBlockingStub(channel).withDeadlineAfter(5, TimeUnit.SECONDS)
+                .authorizationCheck(AuthorizationCheck.AuthorizationCheckRequest.newBuilder().setRequestID("id").build());
+    }
+
+    private static void awaitTransientFailure(ManagedChannel channel) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (channel.getState(true) != ConnectivityState.TRANSIENT_FAILURE && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(ConnectivityState.TRANSIENT_FAILURE, channel.getState(false));
+    }
+}
@@ -0,0 +1,73 @@
+/**
+ *   Copyright 2024 Nitro Agility S.r.l.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+  */
+
+package com.permguard.pep.client;
+
+import com.permguard.pep.builder.AZAtomicRequestBuilder;
+import com.permguard.pep.builder.AZRequestBuilder;
+import com.permguard.pep.builder.PrincipalBuilder;
+import com.permguard.pep.model.request.AZRequest;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks that a filled-in template maps to the same gRPC request as the equivalent full request.
+ */
+class CheckTemplateTest {
+
+    private final Mapper mapper = new Mapper();
+
+    @Test
+    void fillsInTheVaryingFields() {
+        CheckTemplate template = new CheckTemplate(null, mapper, request("prototype", "subject", "resource", "read"));
+
+        assertEquals(mapper.mapAuthorizationCheckRequest(request("r2", "alice", "doc", "write")),
+                template.request("alice", "doc", "write", "r2"));
+    }
+
+    @Test
+    void keepsThePrototypeFieldsLeftNull() {
+        CheckTemplate template = new CheckTemplate(null, mapper, request("prototype", "subject", "resource", "read"));
+
+        assertEquals(mapper.mapAuthorizationCheckRequest(request("prototype", "subject", "resource", "read")),
+                template.request(null, null, null, null));
+    }
+
+    @Test
+    void rejectsPrototypesWithoutSubject() {
+        AZRequest prototype = new AZRequestBuilder(1L, "store")
+                .withPrincipal(new PrincipalBuilder("principal").build())
+                .build();
+
+        assertThrows(IllegalArgumentException.class, () -> new CheckTemplate(null, mapper, prototype));
+    }
+
+    private static AZRequest request(String id, String subjectId, String resourceId, String actionName) {
+        return new AZAtomicRequestBuilder(1L, "store", subjectId, "Resource", actionName)
+                .withRequestId(id)
+                .withPrincipal(new PrincipalBuilder("principal").build())
+                .withSubjectProperty("department", "sales")
+                .withResourceId(resourceId)
+                .withResourceProperty("owner", "bob")
+                .withActionProperty("reason", "audit")
+                .withContextProperty("time", "2024-01-01T00:00:00Z")
+                .build();
+    }
+}
@@ -0,0 +1,134 @@
+/**
+ *   Copyright 2024 Nitro Agility S.r.l.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+  */
+
+package com.permguard.pep.client;
+
+import com.permguard.pep.builder.AZAtomicRequestBuilder;
+import com.permguard.pep.builder.PrincipalBuilder;
+import com.permguard.pep.config.AZConfig;
+import com.permguard.pep.exception.AuthorizationTimeoutException;
+import com.permguard.pep.model.request.AZRequest;
+import com.permguard.pep.model.response.AZResponse;
+import com.permguard.pep.server.AZServer;
+import io.grpc.Context;
+import io.grpc.Deadline;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks that a check exceeding its deadline fails with an {@link AuthorizationTimeoutException},
+ * with or without direct marshalling.
+ */
+class DeadlineTest {
+
+    private static final Duration LATENCY = Duration.ofMillis(500);
+
+    private String name;
+    private AZServer server;
+    private AZClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        name = InProcessServerBuilder.generateName();
+        server = new AZServer(LATENCY);
+        server.start(InProcessServerBuilder.forName(name).directExecutor());
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.shutdown();
+        server.stop();
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void timesOutOnThePerCallDeadline(boolean directMarshalling) {
+        client = createClient(directMarshalling, Duration.ofSeconds(10));
+
+        assertThrows(AuthorizationTimeoutException.class, () -> client.check(request("short"), Duration.ofMillis(100)));
+        assertEquals("long", client.check(request("long"), Duration.ofSeconds(5)).getRequestId());
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void timesOutOnTheDefaultDeadline(boolean directMarshalling) {
+        client = createClient(directMarshalling, Duration.ofMillis(100));
+
+        assertThrows(AuthorizationTimeoutException.class, () -> client.check(request("default")));
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void failsAsyncChecksWithTimeout(boolean directMarshalling) {
+        client = createClient(directMarshalling, Duration.ofSeconds(10));
+
+        CompletableFuture<AZResponse> pending = client.checkAsync(request("async"), Duration.ofMillis(100));
+
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> pending.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(AuthorizationTimeoutException.class, failure.getCause());
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void honoursAShorterContextDeadline(boolean directMarshalling) {
+        client = createClient(directMarshalling, Duration.ofSeconds(10));
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        Context.CancellableContext context = Context.current()
+                .withDeadline(Deadline.after(100, TimeUnit.MILLISECONDS), scheduler);
+        Context previous = context.attach();
+        try {
+            assertThrows(AuthorizationTimeoutException.class, () -> client.check(request("context"), Duration.ofSeconds(5)));
+        } finally {
+            context.detach(previous);
+            context.cancel(null);
+            scheduler.shutdown();
+        }
+    }
+
+    private AZClient createClient(boolean directMarshalling, Duration deadline) {
+        AZConfig config = new AZConfig();
+        config.setDirectMarshalling(directMarshalling);
+        config.setDeadline(deadline);
+        AZClient created = new AZClient(config, InProcessChannelBuilder.forName(name).directExecutor().build());
+        // Load the classes on the check path, which could otherwise take longer than the deadlines under test
+        created.check(request("warm-up"), Duration.ofSeconds(5));
+        return created;
+    }
+
+    private static AZRequest request(String id) {
+        return new AZAtomicRequestBuilder(1L, "store", "subject", "Resource", "Action")
+                .withRequestId(id)
+                .withPrincipal(new PrincipalBuilder("principal").build())
+                .build();
+    }
+}
@@ -0,0 +1,108 @@
+/**
+ *   Copyright 2024 Nitro Agility S.r.l.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+  */
+
+package com.permguard.pep.client;
+
+import com.permguard.pep.config.DecisionCacheConfig;
+import com.permguard.pep.internal.proto.AuthorizationCheck;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Checks that the decision cache serves cached decisions until they expire, with a separate TTL for denied decisions.
+ */
+class DecisionCacheTest {
+
+    private static final AuthorizationCheck.AuthorizationCheckResponse ALLOWED =
+            AuthorizationCheck.AuthorizationCheckResponse.newBuilder().setDecision(true).build();
+    private static final AuthorizationCheck.AuthorizationCheckResponse DENIED =
+            AuthorizationCheck.AuthorizationCheckResponse.newBuilder().setDecision(false).build();
+
+    @Test
+    void servesCachedDecisionsRegardlessOfRequestId() {
+        DecisionCache cache = new DecisionCache(new DecisionCacheConfig());
+        cache.put(DecisionCache.keyOf(request("first", "read")), ALLOWED);
+
+        assertSame(ALLOWED, cache.get(DecisionCache.keyOf(request("second", "read"))));
+        assertNull(cache.get(DecisionCache.keyOf(request("third", "write"))));
+        DecisionCacheStats stats = cache.stats();
+        assertEquals(1, stats.getHitCount());
+        assertEquals(1, stats.getMissCount());
+    }
+
+    @Test
+    void expiresDecisionsAfterTheirTtl() throws InterruptedException {
+        DecisionCache cache = new DecisionCache(new DecisionCacheConfig(Duration.ofMillis(50), Duration.ofMillis(50), 100, 0));
+        AuthorizationCheck.AuthorizationCheckRequest key = DecisionCache.keyOf(request("id", "read"));
+        cache.put(key, ALLOWED);
+
+        Thread.sleep(100);
+        assertNull(cache.get(key));
+        assertEquals(0, cache.stats().getSize());
+    }
+
+    @Test
+    void appliesTheNegativeTtlToDeniedDecisions() throws InterruptedException {
+        DecisionCache cache = new DecisionCache(new DecisionCacheConfig(Duration.ofSeconds(30), Duration.ofMillis(50), 100, 0));
+        AuthorizationCheck.AuthorizationCheckRequest allowed = DecisionCache.keyOf(request("id", "read"));
+        AuthorizationCheck.AuthorizationCheckRequest denied = DecisionCache.keyOf(request("id", "write"));
+        cache.put(allowed, ALLOWED);
+        cache.put(denied, DENIED);
+
+        Thread.sleep(100);
+        assertSame(ALLOWED, cache.get(allowed));
+        assertNull(cache.get(denied));
+    }
+
+    @Test
+    void doesNotCacheDeniedDecisionsWithoutNegativeTtl() {
+        DecisionCache cache = new DecisionCache(new DecisionCacheConfig(Duration.ofSeconds(30), Duration.ZERO, 100, 0));
+        AuthorizationCheck.AuthorizationCheckRequest key = DecisionCache.keyOf(request("id", "write"));
+        cache.put(key, DENIED);
+
+        assertNull(cache.get(key));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedDecisions() {
+        DecisionCache cache = new DecisionCache(new DecisionCacheConfig(Duration.ofSeconds(30), Duration.ofSeconds(30), 2, 0));
+        AuthorizationCheck.AuthorizationCheckRequest read = DecisionCache.keyOf(request("id", "read"));
+        AuthorizationCheck.AuthorizationCheckRequest write = DecisionCache.keyOf(request("id", "write"));
+        AuthorizationCheck.AuthorizationCheckRequest delete = DecisionCache.keyOf(request("id", "delete"));
+        cache.put(read, ALLOWED);
+        cache.put(write, ALLOWED);
+        cache.get(read);
+        cache.put(delete, ALLOWED);
+
+        assertSame(ALLOWED, cache.get(read));
+        assertNull(cache.get(write));
+        assertEquals(1, cache.stats().getEvictionCount());
+    }
+
+    private static AuthorizationCheck.AuthorizationCheckRequest request(String id, String action) {
+        return AuthorizationCheck.AuthorizationCheckRequest.newBuilder()
+                .setRequestID(id)
+                .setAction(AuthorizationCheck.Action.newBuilder().setName(action))
+                .build();
+    }
+}
@@ -0,0 +1,240 @@
+/**
+ *   Copyright 2024 Nitro Agility S.r.l.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+  */
+
+package com.permguard.pep.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.protobuf.CodedInputStream;
+import com.permguard.pep.internal.proto.AuthorizationCheck;
+import com.permguard.pep.model.request.AZModel;
+import com.permguard.pep.model.request.AZRequest;
+import com.permguard.pep.model.request.Action;
+import com.permguard.pep.model.request.Entities;
+import com.permguard.pep.model.request.Evaluation;
+import com.permguard.pep.model.request.PolicyStore;
+import com.permguard.pep.model.request.Principal;
+import com.permguard.pep.model.request.Resource;
+import com.permguard.pep.model.request.Subject;
+import com.permguard.pep.model.response.AZResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares the direct marshalling with the generated protobuf classes on random requests and responses:
+ * the direct encoding must be byte for byte the one of the mapped request, and a directly parsed response
+ * must match the mapped one.
+ */
+class DirectCodecTest {
+
+    private static final int REQUESTS = 20_000;
+    private static final int RESPONSES = 5_000;
+    private static final Object[] NON_FINITE = {Double.NaN, Float.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY};
+
+    enum Color { RED }
+
+    public static class Pojo {
+        public int a = 1;
+        public String b = "x";
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void encodesRequestsAsTheGeneratedClasses(boolean cacheEntities) {
+        Random random = new Random(42);
+        Mapper mapper = new Mapper(cacheEntities, 0);
+        Mapper interned = new Mapper(cacheEntities, 4);
+        DirectCodec codec = new DirectCodec(new Mapper(cacheEntities, 4));
+        DirectCodec plainCodec = new DirectCodec(new Mapper(cacheEntities, 0));
+        RegisteredEntities registered = new RegisteredEntities("registered", "1", new Entities("cedar", List.of(properties(random, 0))),
+                mapper.serializeEntities(new Entities("cedar", List.of(Map.of("a", 1)))));
+        for (int i = 0; i < REQUESTS; i++) {
+            AZRequest request = request(random, registered);
+            byte[] expected = mapper.mapAuthorizationCheckRequest(request).toByteArray();
+            int index = i;
+            Supplier<String> message = () -> "Request " + index + ": " + mapper.mapAuthorizationCheckRequest(request);
+            assertArrayEquals(expected, codec.encode(request).toByteArray(), message);
+            assertArrayEquals(expected, plainCodec.encode(request).toByteArray(), message);
+            assertArrayEquals(expected, interned.mapAuthorizationCheckRequest(request).toByteArray(), message);
+        }
+    }
+
+    @Test
+    void parsesResponsesAsTheGeneratedClasses() throws Exception {
+        Random random = new Random(42);
+        ObjectMapper json = new ObjectMapper();
+        Mapper mapper = new Mapper();
+        for (int i = 0; i < RESPONSES; i++) {
+            AuthorizationCheck.AuthorizationCheckResponse.Builder builder = AuthorizationCheck.AuthorizationCheckResponse.newBuilder()
+                    .setDecision(random.nextBoolean());
+            if (random.nextBoolean()) {
+                builder.setRequestID("id" + i);
+            }
+            if (random.nextBoolean()) {
+                builder.setContext(context(random));
+            }
+            for (int e = 0; e < random.nextInt(4); e++) {
+                AuthorizationCheck.EvaluationResponse.Builder evaluation = AuthorizationCheck.EvaluationResponse.newBuilder()
+                        .setDecision(random.nextBoolean());
+                if (random.nextBoolean()) {
+                    evaluation.setRequestID("e" + e);
+                }
+                if (random.nextBoolean()) {
+                    evaluation.setContext(context(random));
+                }
+                builder.addEvaluations(evaluation);
+            }
+            AuthorizationCheck.AuthorizationCheckResponse response = builder.build();
+            String expected = json.writeValueAsString(materialize(mapper.mapAuthResponsePayload(response)));
+            String actual = json.writeValueAsString(materialize(DirectCodec.parseResponse(CodedInputStream.newInstance(response.toByteArray()))));
+            assertEquals(expected, actual, "Response " + i);
+        }
+    }
+
+    private static AZResponse materialize(AZResponse response) {
+        return new AZResponse(response.isDecision(), response.getRequestId(), response.getContext(), new ArrayList<>(response.getEvaluations()));
+    }
+
+    private static AuthorizationCheck.ContextResponse context(Random random) {
+        AuthorizationCheck.ContextResponse.Builder builder = AuthorizationCheck.ContextResponse.newBuilder()
+                .setID(random.nextBoolean() ? "" : "c");
+        if (random.nextBoolean()) {
+            builder.setReasonAdmin(AuthorizationCheck.ReasonResponse.newBuilder().setCode("1").setMessage("m"));
+        }
+        if (random.nextBoolean()) {
+            builder.setReasonUser(AuthorizationCheck.ReasonResponse.newBuilder().setCode("2"));
+        }
+        return builder.build();
+    }
+
+    private static AZRequest request(Random random, RegisteredEntities registered) {
+        AZModel model = null;
+        if (random.nextInt(8) != 0) {
+            List<Map<String, Object>> items = new ArrayList<>();
+            for (int i = 0; i < random.nextInt(4); i++) {
+                items.add(properties(random, 0));
+            }
+            Entities entities = random.nextInt(4) == 0 ? null
+                    : random.nextInt(3) == 0 ? registered
+                    : new Entities(string(random), random.nextInt(4) == 0 ? null : items);
+            model = new AZModel(random.nextInt(3) == 0 ? 0 : random.nextLong(),
+                    random.nextInt(5) == 0 ? null : new PolicyStore(string(random), string(random)),
+                    random.nextInt(5) == 0 ? null : new Principal(string(random), string(random), string(random), null, null),
+                    entities);
+        }
+        List<Evaluation> evaluations = null;
+        if (random.nextBoolean()) {
+            evaluations = new ArrayList<>();
+            for (int i = 0; i < random.nextInt(4); i++) {
+                evaluations.add(new Evaluation(string(random),
+                        random.nextInt(4) == 0 ? null : subject(random),
+                        random.nextInt(4) == 0 ? null : resource(random),
+                        random.nextInt(4) == 0 ? null : action(random),
+                        optionalProperties(random)));
+            }
+        }
+        return new AZRequest(string(random), model,
+                random.nextInt(4) == 0 ? null : subject(random),
+                random.nextInt(4) == 0 ? null : resource(random),
+                random.nextInt(4) == 0 ? null : action(random),
+                optionalProperties(random), evaluations);
+    }
+
+    private static Subject subject(Random random) {
+        return new Subject(string(random), string(random), string(random), optionalProperties(random));
+    }
+
+    private static Resource resource(Random random) {
+        return new Resource(string(random), string(random), optionalProperties(random));
+    }
+
+    private static Action action(Random random) {
+        return new Action(string(random), optionalProperties(random));
+    }
+
+    /**
+     * Generates a null, empty, ASCII or non-ASCII string.
+     */
+    private static String string(Random random) {
+        int kind = random.nextInt(4);
+        return kind == 0 ? null : kind == 1 ? "" : "v" + random.nextInt(100) + (kind == 3 ? "ü" : "");
+    }
+
+    private static Map<String, Object> optionalProperties(Random random) {
+        return random.nextInt(3) == 0 ? null : properties(random, 0);
+    }
+
+    private static Map<String, Object> properties(Random random, int depth) {
+        Map<String, Object> properties = random.nextBoolean() ? new HashMap<>() : new LinkedHashMap<>();
+        for (int i = 0; i < random.nextInt(5); i++) {
+            String key = random.nextInt(3) == 0 ? "" : "k" + random.nextInt(50) + (random.nextBoolean() ? "é😀" : "");
+            properties.put(key, value(random, depth));
+        }
+        return properties;
+    }
+
+    /**
+     * Generates a property value of any kind the mappers support, nesting maps and lists up to a few levels.
+     */
+    private static Object value(Random random, int depth) {
+        switch (random.nextInt(depth > 2 ? 11 : 14)) {
+            case 0:
+                return null;
+            case 1:
+                return "s" + random.nextInt();
+            case 2:
+                return random.nextBoolean();
+            case 3:
+                return random.nextInt();
+            case 4:
+                return random.nextInt(4) == 0 ? NON_FINITE[random.nextInt(NON_FINITE.length)] : 0.1f;
+            case 5:
+                return new BigDecimal("12.5");
+            case 6:
+                return 'c';
+            case 7:
+                return Color.RED;
+            case 8:
+                return new Date(0);
+            case 9:
+                return new Pojo();
+            case 10:
+                return random.nextBoolean() ? new int[]{1, 2} : new byte[]{1, 2, 3};
+            case 11:
+                return properties(random, depth + 1);
+            case 12:
+                return new ArrayList<>(Arrays.asList(value(random, depth + 1), "x"));
+            default:
+                return new Object[]{null, 1L, properties(random, depth + 1)};
+        }
+    }
+}
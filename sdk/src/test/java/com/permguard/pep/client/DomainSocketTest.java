@@ -0,0 +1,68 @@
+/**
+ *   Copyright 2024 Nitro Agility S.r.l.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+  */
+
+package com.permguard.pep.client;
+
+import com.permguard.pep.builder.AZAtomicRequestBuilder;
+import com.permguard.pep.builder.PrincipalBuilder;
+import com.permguard.pep.config.AZConfig;
+import com.permguard.pep.model.request.AZRequest;
+import com.permguard.pep.server.AZServer;
+import io.netty.channel.epoll.Epoll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Checks that a client with a {@code unix://} target reaches a server listening on a Unix domain socket.
+ * It needs the epoll native library, so it is skipped on platforms without it.
+ */
+class DomainSocketTest {
+
+    @Test
+    void checksOverADomainSocket(@TempDir Path directory) throws Exception {
+        assumeTrue(Epoll.isAvailable(), "epoll is not available on this platform");
+        Path socket = directory.resolve("pdp.sock");
+        AZServer server = new AZServer();
+        server.start(socket);
+        try {
+            AZConfig config = new AZConfig();
+            config.setTarget("unix://" + socket);
+            AZClient client = new AZClient(config);
+            try {
+                assertEquals("first", client.check(request("first")).getRequestId());
+                assertEquals("second", client.checkAsync(request("second")).join().getRequestId());
+            } finally {
+                client.shutdown();
+            }
+        } finally {
+            server.stop();
+        }
+    }
+
+    private static AZRequest request(String id) {
+        return new AZAtomicRequestBuilder(1L, "store", "subject", "Resource", "Action")
+                .withRequestId(id)
+                .withPrincipal(new PrincipalBuilder("principal").build())
+                .build();
+    }
+}
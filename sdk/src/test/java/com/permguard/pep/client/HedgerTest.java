@@ -0,0 +1,111 @@
+/**
+ *   Copyright 2024 Nitro Agility S.r.l.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+  */
+
+package com.permguard.pep.client;
+
+import com.permguard.pep.config.HedgingConfig;
+import com.permguard.pep.metrics.AZMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that a slow call is hedged once the observed latency percentile has passed,
+ * and that the token bucket caps the number of hedges.
+ */
+class HedgerTest {
+
+    private static final long LATENCY_MILLIS = 30;
+
+    private ScheduledExecutorService scheduler;
+    private Hedger hedger;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        hedger.shutdown();
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void hedgesAfterTheLatencyPercentile() throws Exception {
+        hedger = new Hedger(new HedgingConfig(50.0, Duration.ofMillis(1), Duration.ofSeconds(10), 1.0, 100), AZMetrics.NOOP);
+        // Each call answers after the latency, so the median of the samples is at least that latency
+        List<CompletableFuture<String>> calls = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            calls.add(hedger.invoke(token -> answerAfter(LATENCY_MILLIS), null));
+        }
+        CompletableFuture.allOf(calls.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+        long delay = hedger.stats().getHedgeDelayNanos();
+        assertTrue(delay >= TimeUnit.MILLISECONDS.toNanos(LATENCY_MILLIS) && delay < TimeUnit.SECONDS.toNanos(1), "delay " + delay);
+
+        List<CompletableFuture<?>> tokens = new CopyOnWriteArrayList<>();
+        List<Long> launches = new CopyOnWriteArrayList<>();
+        long start = System.nanoTime();
+        CompletableFuture<String> result = hedger.invoke(token -> {
+            tokens.add(token);
+            launches.add(System.nanoTime() - start);
+            // The primary attempt never answers; the hedge answers at once
+            return launches.size() == 1 ? new CompletableFuture<>() : CompletableFuture.completedFuture("hedge");
+        }, null);
+
+        assertEquals("hedge", result.get(5, TimeUnit.SECONDS));
+        assertEquals(2, launches.size());
+        assertTrue(launches.get(1) >= delay, "hedged after " + launches.get(1));
+        assertTrue(tokens.get(0).isCancelled());
+        assertEquals(1, hedger.stats().getHedgeCount());
+    }
+
+    @Test
+    void limitsHedgesWithTheTokenBucket() throws Exception {
+        // Without refill, the bucket allows the 10 hedges it starts with
+        hedger = new Hedger(new HedgingConfig(50.0, Duration.ofMillis(1), Duration.ofMillis(1), 0.0, 100), AZMetrics.NOOP);
+        for (int i = 0; i < 15; i++) {
+            hedger.invoke(token -> new CompletableFuture<String>(), null);
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (hedger.stats().getHedgeCount() + hedger.stats().getThrottledCount() < 15 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(10, hedger.stats().getHedgeCount());
+        assertEquals(5, hedger.stats().getThrottledCount());
+    }
+
+    private CompletableFuture<String> answerAfter(long millis) {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        scheduler.schedule(() -> future.complete("primary"), millis, TimeUnit.MILLISECONDS);
+        return future;
+    }
+}
@@ -0,0 +1,156 @@
+/**
+ *   Copyright 2024 Nitro Agility S.r.l.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+  */
+
+package com.permguard.pep.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.permguard.pep.internal.proto.AuthorizationCheck;
+import com.permguard.pep.model.response.AZResponse;
+import com.permguard.pep.model.response.EvaluationResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Checks that a response converted on first access reads and counts its decisions the same as one converted eagerly.
+ */
+class LazyAZResponseTest {
+
+    private static final int RESPONSES = 1_000;
+
+    private final Mapper mapper = new Mapper();
+
+    @Test
+    void readsAsTheEagerResponse() throws Exception {
+        Random random = new Random(42);
+        ObjectMapper json = new ObjectMapper();
+        for (int i = 0; i < RESPONSES; i++) {
+            AuthorizationCheck.AuthorizationCheckResponse response = response(random, i);
+
+            String expected = json.writeValueAsString(eager(response));
+            String actual = json.writeValueAsString(mapper.mapAuthResponsePayload(response));
+            assertEquals(expected, actual, "Response " + i);
+        }
+    }
+
+    @Test
+    void convertsEvaluationsOnce() {
+        AZResponse response = mapper.mapAuthResponsePayload(response(new Random(1), 0).toBuilder()
+                .addEvaluations(AuthorizationCheck.EvaluationResponse.newBuilder().setDecision(true))
+                .build());
+
+        assertSame(response.getEvaluations(), response.getEvaluations());
+    }
+
+    @Test
+    void keepsValuesSetBeforeFirstAccess() {
+        AZResponse response = mapper.mapAuthResponsePayload(AuthorizationCheck.AuthorizationCheckResponse.newBuilder()
+                .setDecision(true)
+                .setRequestID("id")
+                .setContext(AuthorizationCheck.ContextResponse.newBuilder().setID("c"))
+                .addEvaluations(AuthorizationCheck.EvaluationResponse.newBuilder().setDecision(true))
+                .build());
+        List<EvaluationResponse> evaluations = List.of();
+        response.setRequestId("other");
+        response.setContext(null);
+        response.setEvaluations(evaluations);
+
+        assertEquals("other", response.getRequestId());
+        assertNull(response.getContext());
+        assertSame(evaluations, response.getEvaluations());
+    }
+
+    @Test
+    void countsDecisionsAsTheEagerResponse() {
+        Random random = new Random(7);
+        for (int i = 0; i < RESPONSES; i++) {
+            AuthorizationCheck.AuthorizationCheckResponse response = response(random, i);
+            AZResponse expected = eager(response);
+            AZResponse lazy = mapper.mapAuthResponsePayload(response);
+
+            // Computed from the protobuf message first, then from the converted evaluations
+            for (int pass = 0; pass < 2; pass++) {
+                assertEquals(expected.decisions(), lazy.decisions(), "Response " + i);
+                assertEquals(expected.allowedCount(), lazy.allowedCount(), "Response " + i);
+                assertEquals(expected.evaluationCount(), lazy.evaluationCount(), "Response " + i);
+                lazy.getEvaluations();
+            }
+        }
+    }
+
+    @Test
+    void countsDecisionsOfSetEvaluations() {
+        AZResponse response = mapper.mapAuthResponsePayload(AuthorizationCheck.AuthorizationCheckResponse.newBuilder()
+                .addEvaluations(AuthorizationCheck.EvaluationResponse.newBuilder().setDecision(true))
+                .build());
+        response.setEvaluations(List.of(new EvaluationResponse(false, "a", null), new EvaluationResponse(true, "b", null)));
+
+        assertEquals(BitSet.valueOf(new long[]{0b10}), response.decisions());
+        assertEquals(1, response.allowedCount());
+        assertEquals(2, response.evaluationCount());
+    }
+
+    private AZResponse eager(AuthorizationCheck.AuthorizationCheckResponse response) {
+        return new AZResponse(response.getDecision(),
+                response.hasRequestID() ? response.getRequestID() : "",
+                response.hasContext() ? mapper.mapContextResponse(response.getContext()) : null,
+                response.getEvaluationsList().stream().map(mapper::mapEvaluationResponse).toList());
+    }
+
+    private static AuthorizationCheck.AuthorizationCheckResponse response(Random random, int index) {
+        AuthorizationCheck.AuthorizationCheckResponse.Builder builder = AuthorizationCheck.AuthorizationCheckResponse.newBuilder()
+                .setDecision(random.nextBoolean());
+        if (random.nextBoolean()) {
+            builder.setRequestID("id" + index);
+        }
+        if (random.nextBoolean()) {
+            builder.setContext(context(random));
+        }
+        int evaluations = random.nextInt(70);
+        for (int e = 0; e < evaluations; e++) {
+            AuthorizationCheck.EvaluationResponse.Builder evaluation = AuthorizationCheck.EvaluationResponse.newBuilder()
+                    .setDecision(random.nextBoolean());
+            if (random.nextBoolean()) {
+                evaluation.setRequestID("e" + e);
+            }
+            if (random.nextInt(4) == 0) {
+                evaluation.setContext(context(random));
+            }
+            builder.addEvaluations(evaluation);
+        }
+        return builder.build();
+    }
+
+    private static AuthorizationCheck.ContextResponse context(Random random) {
+        AuthorizationCheck.ContextResponse.Builder builder = AuthorizationCheck.ContextResponse.newBuilder()
+                .setID(random.nextBoolean() ? "" : "c");
+        if (random.nextBoolean()) {
+            builder.setReasonAdmin(AuthorizationCheck.ReasonResponse.newBuilder().setCode("1").setMessage("m"));
+        }
+        if (random.nextBoolean()) {
+            builder.setReasonUser(AuthorizationCheck.ReasonResponse.newBuilder().setCode("2"));
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,86 @@
+/**
+ *   Copyright 2024 Nitro Agility S.r.l.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+  */
+
+package com.permguard.pep.client;
+
+import com.permguard.pep.internal.proto.AuthorizationCheck;
+import com.permguard.pep.model.request.AZModel;
+import com.permguard.pep.model.request.AZRequest;
+import com.permguard.pep.model.request.Action;
+import com.permguard.pep.model.request.Entities;
+import com.permguard.pep.model.request.Evaluation;
+import com.permguard.pep.model.request.PolicyStore;
+import com.permguard.pep.model.request.Principal;
+import com.permguard.pep.model.request.Resource;
+import com.permguard.pep.model.request.Subject;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks how the mapper handles missing fields and entity items.
+ */
+class MapperTest {
+
+    @Test
+    void leavesNullFieldsUnset() {
+        AZRequest request = new AZRequest(null,
+                new AZModel(1L, new PolicyStore(null, null), new Principal(null, null, null, null, null), new Entities(null, null)),
+                new Subject(null, null, null, null), new Resource(null, null, null), new Action(null, null), null,
+                List.of(new Evaluation(null, null, null, null, null)));
+
+        AuthorizationCheck.AuthorizationCheckRequest mapped = new Mapper().mapAuthorizationCheckRequest(request);
+
+        assertEquals(AuthorizationCheck.PolicyStore.getDefaultInstance(), mapped.getAuthorizationModel().getPolicyStore());
+        assertEquals(AuthorizationCheck.Principal.getDefaultInstance(), mapped.getAuthorizationModel().getPrincipal());
+        assertEquals(AuthorizationCheck.Entities.getDefaultInstance(), mapped.getAuthorizationModel().getEntities());
+        assertFalse(mapped.getSubject().hasProperties());
+        assertFalse(mapped.getResource().hasProperties());
+        assertFalse(mapped.getAction().hasProperties());
+        assertFalse(mapped.getEvaluations(0).hasSubject());
+        assertFalse(mapped.getEvaluations(0).hasResource());
+        assertFalse(mapped.getEvaluations(0).hasAction());
+    }
+
+    @Test
+    void leavesMissingModelUnset() {
+        AZRequest request = new AZRequest("id", null, null, null, null, null, null);
+
+        AuthorizationCheck.AuthorizationCheckRequest mapped = new Mapper().mapAuthorizationCheckRequest(request);
+
+        assertFalse(mapped.hasAuthorizationModel());
+        assertEquals("id", mapped.getRequestID());
+    }
+
+    @Test
+    void mapsEntityItems() {
+        AZModel model = new AZModel(1L, null, null, new Entities("cedar", List.of(Map.of("uid", "user"))));
+
+        AuthorizationCheck.AuthorizationCheckRequest mapped = new Mapper()
+                .mapAuthorizationCheckRequest(new AZRequest(null, model, null, null, null, null, null));
+
+        assertTrue(mapped.getAuthorizationModel().hasEntities());
+        assertEquals(1, mapped.getAuthorizationModel().getEntities().getItemsCount());
+        assertEquals("user", mapped.getAuthorizationModel().getEntities().getItems(0).getFieldsOrThrow("uid").getStringValue());
+    }
+}
@@ -0,0 +1,64 @@
+/**
+ *   Copyright 2024 Nitro Agility S.r.l.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+  */
+
+package com.permguard.pep.client;
+
+import com.permguard.pep.internal.proto.AuthorizationCheck;
+import com.permguard.pep.model.request.AZModel;
+import com.permguard.pep.model.request.Entities;
+import com.permguard.pep.model.request.PolicyStore;
+import com.permguard.pep.model.request.Principal;
+import org.junit.jupiter.api.Test;
+
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Checks that the model memo only returns a mapped model for a model with the same content.
+ */
+class ModelCacheTest {
+
+    private final Function<AZModel, AuthorizationCheck.AuthorizationModelRequest> mapping =
+            model -> AuthorizationCheck.AuthorizationModelRequest.newBuilder().setZoneID(model.getZoneId()).build();
+
+    @Test
+    void reusesModelsWithTheSameContent() {
+        ModelCache cache = new ModelCache(false);
+
+        assertSame(cache.get(model(new PolicyStore("ledger", "s1"), null, null), mapping),
+                cache.get(model(new PolicyStore("ledger", "s1"), null, null), mapping));
+    }
+
+    @Test
+    void tellsAbsentPartsFromEmptyOnes() {
+        ModelCache cache = new ModelCache(false);
+
+        assertNotSame(cache.get(model(null, null, null), mapping),
+                cache.get(model(new PolicyStore(null, null), null, null), mapping));
+        assertNotSame(cache.get(model(null, null, null), mapping),
+                cache.get(model(null, new Principal(null, null, null, null, null), null), mapping));
+        assertNotSame(cache.get(model(null, null, null), mapping),
+                cache.get(model(null, null, new Entities(null, null)), mapping));
+    }
+
+    private static AZModel model(PolicyStore store, Principal principal, Entities entities) {
+        return new AZModel(1L, store, principal, entities);
+    }
+}
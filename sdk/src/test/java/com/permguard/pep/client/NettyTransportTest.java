@@ -0,0 +1,93 @@
+/**
+ *   Copyright 2024 Nitro Agility S.r.l.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+  */
+
+package com.permguard.pep.client;
+
+import com.permguard.pep.builder.AZAtomicRequestBuilder;
+import com.permguard.pep.builder.PrincipalBuilder;
+import com.permguard.pep.config.AZConfig;
+import com.permguard.pep.config.TransportConfig;
+import com.permguard.pep.config.TransportType;
+import com.permguard.pep.model.request.AZRequest;
+import com.permguard.pep.model.response.AZResponse;
+import com.permguard.pep.server.AZServer;
+import org.junit.jupiter.api.Test;
+
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the transports share their pooled allocators and outlive the calls in flight at shutdown.
+ */
+class NettyTransportTest {
+
+    @Test
+    void sharesPooledAllocators() {
+        NettyTransport first = new NettyTransport(new TransportConfig(TransportType.NIO, 1, true, true));
+        NettyTransport second = new NettyTransport(new TransportConfig(TransportType.NIO, 1, true, true));
+        NettyTransport heap = new NettyTransport(new TransportConfig(TransportType.NIO, 1, false, true));
+        try {
+            assertSame(first.allocator(), second.allocator());
+            assertNotSame(first.allocator(), heap.allocator());
+        } finally {
+            first.shutdown();
+            second.shutdown();
+            heap.shutdown();
+        }
+    }
+
+    @Test
+    void completesChecksInFlightAtShutdown() throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        AZServer server = new AZServer(Duration.ofMillis(500));
+        server.start(port);
+        try {
+            AZConfig config = new AZConfig("localhost", port, true);
+            config.setTransport(new TransportConfig(TransportType.NIO, 1, true, true));
+            AZClient client = new AZClient(config);
+            client.check(request("warm-up"));
+
+            CompletableFuture<AZResponse> pending = client.checkAsync(request("pending"));
+            // Let the call start, which happens on the client's executor, well within the server latency
+            Thread.sleep(100);
+            client.shutdown();
+
+            // The event loops stop only once the channels have terminated, i.e. after the call in flight
+            assertTrue(pending.isDone());
+            assertEquals("pending", pending.join().getRequestId());
+        } finally {
+            server.stop();
+        }
+    }
+
+    private static AZRequest request(String id) {
+        return new AZAtomicRequestBuilder(1L, "store", "subject", "Resource", "Action")
+                .withRequestId(id)
+                .withPrincipal(new PrincipalBuilder("principal").build())
+                .build();
+    }
+}
@@ -0,0 +1,142 @@
+/**
+ *   Copyright 2024 Nitro Agility S.r.l.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+  */
+
+package com.permguard.pep.client;
+
+import com.permguard.pep.builder.AZAtomicRequestBuilder;
+import com.permguard.pep.builder.PrincipalBuilder;
+import com.permguard.pep.config.AZConfig;
+import com.permguard.pep.exception.AuthorizationTimeoutException;
+import com.permguard.pep.metrics.SimpleAZMetrics;
+import com.permguard.pep.model.request.AZRequest;
+import com.permguard.pep.model.response.AZResponse;
+import com.permguard.pep.server.AZServer;
+import io.grpc.Context;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks that coalesced checks share one call without sharing the deadline or the cancellation of the caller that starts it.
+ */
+class RequestCoalescingTest {
+
+    private static final Duration LATENCY = Duration.ofMillis(300);
+
+    private AZServer server;
+    private SimpleAZMetrics metrics;
+    private AZClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        String name = InProcessServerBuilder.generateName();
+        server = new AZServer(LATENCY);
+        server.start(InProcessServerBuilder.forName(name).directExecutor());
+        metrics = new SimpleAZMetrics();
+        AZConfig config = new AZConfig();
+        config.setCoalesceRequests(true);
+        config.setDeadline(Duration.ofSeconds(10));
+        config.setMetrics(metrics);
+        client = new AZClient(config, InProcessChannelBuilder.forName(name).directExecutor().build());
+        // Load the classes on the check path, which could otherwise take longer than the deadlines under test
+        client.check(request("warm-up"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.shutdown();
+        server.stop();
+    }
+
+    @Test
+    void followerOutlivesLeaderDeadline() throws Exception {
+        CompletableFuture<AZResponse> leader = CompletableFuture.supplyAsync(() -> client.check(request("leader"), Duration.ofMillis(100)));
+        awaitInFlight();
+        AZResponse follower = client.check(request("follower"), Duration.ofSeconds(5));
+
+        assertEquals("follower", follower.getRequestId());
+        assertEquals(1, metrics.getCoalescedCount());
+        ExecutionException failure = assertThrows(ExecutionException.class, leader::get);
+        assertInstanceOf(AuthorizationTimeoutException.class, failure.getCause());
+    }
+
+    @Test
+    void followerTimesOutOnItsOwnDeadline() throws Exception {
+        CompletableFuture<AZResponse> leader = CompletableFuture.supplyAsync(() -> client.check(request("leader"), Duration.ofSeconds(5)));
+        awaitInFlight();
+
+        assertThrows(AuthorizationTimeoutException.class, () -> client.check(request("follower"), Duration.ofMillis(50)));
+        assertEquals("leader", leader.get(5, TimeUnit.SECONDS).getRequestId());
+    }
+
+    @Test
+    void followerOutlivesLeaderCancellation() throws Exception {
+        Context.CancellableContext context = Context.current().withCancellation();
+        CompletableFuture<AZResponse> leader = CompletableFuture.supplyAsync(() -> {
+            Context previous = context.attach();
+            try {
+                return client.check(request("leader"));
+            } finally {
+                context.detach(previous);
+            }
+        });
+        awaitInFlight();
+        context.cancel(null);
+
+        assertEquals("follower", client.check(request("follower"), Duration.ofSeconds(5)).getRequestId());
+        leader.handle((response, error) -> null).get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void asyncFollowerOutlivesLeaderDeadline() throws Exception {
+        CompletableFuture<AZResponse> leader = client.checkAsync(request("leader"), Duration.ofMillis(100));
+        awaitInFlight();
+        CompletableFuture<AZResponse> follower = client.checkAsync(request("follower"), Duration.ofSeconds(5));
+
+        assertEquals("follower", follower.get(5, TimeUnit.SECONDS).getRequestId());
+        ExecutionException failure = assertThrows(ExecutionException.class, leader::get);
+        assertInstanceOf(AuthorizationTimeoutException.class, failure.getCause());
+    }
+
+    private void awaitInFlight() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (metrics.getInFlight() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        // Let the leader register its call before the follower arrives
+        Thread.sleep(20);
+    }
+
+    private static AZRequest request(String requestId) {
+        return new AZAtomicRequestBuilder(1L, "store", "subject", "Resource", "Action")
+                .withRequestId(requestId)
+                .withPrincipal(new PrincipalBuilder("principal").build())
+                .build();
+    }
+}
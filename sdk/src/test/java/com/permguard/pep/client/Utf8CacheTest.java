@@ -0,0 +1,90 @@
+/**
+ *   Copyright 2024 Nitro Agility S.r.l.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+  */
+
+package com.permguard.pep.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Checks that the cache of encoded strings keeps its first entries once full and reports the strings it refuses.
+ */
+class Utf8CacheTest {
+
+    @Test
+    void keepsCachedStringsOnceFull() {
+        Utf8Cache cache = new Utf8Cache(2);
+        cache.get("a");
+        cache.get("b");
+        for (int i = 0; i < 10; i++) {
+            cache.get("other" + i);
+        }
+
+        assertSame(cache.get("a"), cache.get("a"));
+        StringCacheStats stats = cache.stats();
+        assertEquals(2, stats.getSize());
+        assertEquals(10, stats.getRejectionCount());
+        assertEquals(12, stats.getMissCount());
+        assertEquals(2, stats.getHitCount());
+    }
+
+    @Test
+    void staysWithinBoundUnderConcurrentMisses() throws Exception {
+        Utf8Cache cache = new Utf8Cache(16);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            int offset = t * 1000;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 1000; i++) {
+                    cache.get("value" + (offset + i));
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        StringCacheStats stats = cache.stats();
+        assertEquals(16, stats.getSize());
+        assertEquals(8000 - 16, stats.getRejectionCount());
+    }
+
+    @Test
+    void neverCachesLongStrings() {
+        Utf8Cache cache = new Utf8Cache(2);
+        cache.get("x".repeat(300));
+
+        assertEquals(0, cache.stats().getSize());
+        assertEquals(0, cache.stats().getRejectionCount());
+    }
+}
@@ -0,0 +1,96 @@
+/**
+ *   Copyright 2024 Nitro Agility S.r.l.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+  */
+
+package com.permguard.pep.client;
+
+import com.permguard.pep.builder.AZAtomicRequestBuilder;
+import com.permguard.pep.builder.PrincipalBuilder;
+import com.permguard.pep.config.AZConfig;
+import com.permguard.pep.model.request.AZRequest;
+import com.permguard.pep.server.AZServer;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that a client with virtual threads completes its checks on them on Java 21 and later,
+ * and works as usual on Java 17, where the option has no effect.
+ */
+class VirtualThreadsTest {
+
+    @Test
+    void completesChecksOnVirtualThreads() throws Exception {
+        String name = InProcessServerBuilder.generateName();
+        AZServer server = new AZServer(Duration.ofMillis(50));
+        server.start(InProcessServerBuilder.forName(name).directExecutor());
+        AZConfig config = new AZConfig();
+        config.setVirtualThreads(true);
+        AZClient client = new AZClient(config, InProcessChannelBuilder.forName(name).build());
+        try {
+            assertEquals("blocking", client.check(request("blocking")).getRequestId());
+            CompletableFuture<Thread> completion = client.checkAsync(request("async")).thenApply(response -> Thread.currentThread());
+
+            Thread thread = completion.get(5, TimeUnit.SECONDS);
+            Method isVirtual = isVirtualMethod();
+            if (isVirtual != null) {
+                assertTrue((Boolean) isVirtual.invoke(thread), thread.toString());
+            }
+        } finally {
+            client.shutdown();
+            server.stop();
+        }
+    }
+
+    @Test
+    void createsExecutorsOnlyWhereSupported() {
+        ExecutorService executor = VirtualThreads.newExecutor();
+        if (isVirtualMethod() == null) {
+            assertNull(executor);
+        } else {
+            assertNotNull(executor);
+            executor.shutdown();
+        }
+    }
+
+    private static Method isVirtualMethod() {
+        try {
+            return Thread.class.getMethod("isVirtual");
+        } catch (NoSuchMethodException e) {
+            // Java 17: no virtual threads
+            return null;
+        }
+    }
+
+    private static AZRequest request(String id) {
+        return new AZAtomicRequestBuilder(1L, "store", "subject", "Resource", "Action")
+                .withRequestId(id)
+                .withPrincipal(new PrincipalBuilder("principal").build())
+                .build();
+    }
+}
@@ -0,0 +1,128 @@
+/**
+ *   Copyright 2024 Nitro Agility S.r.l.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+  */
+
+package com.permguard.pep.tracing;
+
+import com.permguard.pep.builder.AZAtomicRequestBuilder;
+import com.permguard.pep.builder.PrincipalBuilder;
+import com.permguard.pep.client.AZClient;
+import com.permguard.pep.config.AZConfig;
+import com.permguard.pep.internal.proto.V1PDPServiceGrpc;
+import com.permguard.pep.server.AZServer;
+import io.grpc.CallOptions;
+import io.grpc.ClientInterceptors;
+import io.grpc.ManagedChannel;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the client spans recorded by the tracing interceptor.
+ */
+class OpenTelemetryAZTracingTest {
+
+    private final InMemorySpanExporter exporter = InMemorySpanExporter.create();
+    private final AtomicInteger started = new AtomicInteger();
+    private OpenTelemetryAZTracing tracing;
+    private AZServer server;
+    private ManagedChannel channel;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        tracing = new OpenTelemetryAZTracing(OpenTelemetrySdk.builder()
+                .setTracerProvider(SdkTracerProvider.builder()
+                        .addSpanProcessor(SimpleSpanProcessor.create(exporter))
+                        .addSpanProcessor(new SpanProcessor() {
+                            @Override
+                            public void onStart(Context parentContext, ReadWriteSpan span) {
+                                started.incrementAndGet();
+                            }
+
+                            @Override
+                            public boolean isStartRequired() {
+                                return true;
+                            }
+
+                            @Override
+                            public void onEnd(ReadableSpan span) {
+                            }
+
+                            @Override
+                            public boolean isEndRequired() {
+                                return false;
+                            }
+                        })
+                        .build())
+                .build());
+        String name = InProcessServerBuilder.generateName();
+        server = new AZServer();
+        server.start(InProcessServerBuilder.forName(name).directExecutor());
+        channel = InProcessChannelBuilder.forName(name).directExecutor().build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        channel.shutdownNow();
+        server.stop();
+    }
+
+    @Test
+    void recordsDirectlyMarshalledRequests() {
+        AZConfig config = new AZConfig();
+        config.setDirectMarshalling(true);
+        config.setTracing(tracing);
+        AZClient client = new AZClient(config, channel);
+        client.check(new AZAtomicRequestBuilder(7L, "store", "subject", "Resource", "Action")
+                .withPrincipal(new PrincipalBuilder("principal").build())
+                .build());
+        client.shutdown();
+
+        SpanData span = exporter.getFinishedSpanItems().stream()
+                .filter(item -> item.getKind() == SpanKind.CLIENT)
+                .findFirst().orElseThrow();
+        assertEquals(7L, span.getAttributes().get(OpenTelemetryAZTracing.ZONE_ID));
+        assertEquals("store", span.getAttributes().get(OpenTelemetryAZTracing.POLICY_STORE_ID));
+        assertEquals(0L, span.getAttributes().get(OpenTelemetryAZTracing.EVALUATION_COUNT));
+        assertTrue(span.getAttributes().get(OpenTelemetryAZTracing.REQUEST_SIZE) > 0);
+    }
+
+    @Test
+    void startsNoSpanForCallsNeverStarted() {
+        ClientInterceptors.intercept(channel, tracing.interceptor())
+                .newCall(V1PDPServiceGrpc.getAuthorizationCheckMethod(), CallOptions.DEFAULT);
+
+        assertEquals(0, started.get());
+    }
+}
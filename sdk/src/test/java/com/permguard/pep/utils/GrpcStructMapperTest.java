@@ -0,0 +1,75 @@
+/**
+ *   Copyright 2024 Nitro Agility S.r.l.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+  */
+
+package com.permguard.pep.utils;
+
+import com.google.protobuf.ListValue;
+import com.google.protobuf.NullValue;
+import com.google.protobuf.Struct;
+import com.google.protobuf.Value;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that the direct conversion produces the values of the JSON encoding.
+ */
+class GrpcStructMapperTest {
+
+    public static class Pojo {
+        public int a = 1;
+        public String b = "x";
+        public byte[] bytes = {1, 2, 3};
+    }
+
+    @Test
+    void convertsArraysWithNullElements() {
+        Value expected = Value.newBuilder().setListValue(ListValue.newBuilder()
+                .addValues(Value.newBuilder().setNullValue(NullValue.NULL_VALUE))
+                .addValues(Value.newBuilder().setStringValue("a"))).build();
+
+        assertEquals(expected, GrpcStructMapper.toGrpcValue(new Object[]{null, "a"}));
+        assertEquals(expected, GrpcStructMapper.toGrpcValue(Arrays.asList(null, "a")));
+    }
+
+    @Test
+    void convertsBytesToBase64() {
+        assertEquals(Value.newBuilder().setStringValue("AQID").build(), GrpcStructMapper.toGrpcValue(new byte[]{1, 2, 3}));
+    }
+
+    @Test
+    void convertsObjectsAsJackson() {
+        Value expected = Value.newBuilder().setStructValue(Struct.newBuilder()
+                .putFields("a", Value.newBuilder().setNumberValue(1).build())
+                .putFields("b", Value.newBuilder().setStringValue("x").build())
+                .putFields("bytes", Value.newBuilder().setStringValue("AQID").build())).build();
+
+        assertEquals(expected, GrpcStructMapper.toGrpcValue(new Pojo()));
+        assertEquals(Value.newBuilder().setStringValue("ab").build(), GrpcStructMapper.toGrpcValue(new char[]{'a', 'b'}));
+    }
+
+    @Test
+    void convertsNonFiniteNumbersToStrings() {
+        assertEquals(Value.newBuilder().setStringValue("NaN").build(), GrpcStructMapper.toGrpcValue(Double.NaN));
+        assertEquals(Value.newBuilder().setStringValue("Infinity").build(), GrpcStructMapper.toGrpcValue(Float.POSITIVE_INFINITY));
+        assertEquals(Value.newBuilder().setStringValue("-Infinity").build(), GrpcStructMapper.toGrpcValue(Double.NEGATIVE_INFINITY));
+        assertEquals(Value.newBuilder().setNumberValue(0.1).build(), GrpcStructMapper.toGrpcValue(0.1f));
+    }
+}